@@ -0,0 +1,137 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+
+/**
+ * Loads sprites off the Event Dispatch Thread.
+ * Decoding and scaling run on a small pool of background threads and land in the
+ * {@link SpriteCache}; callers get a future, or use {@link #loadInto} to show a
+ * placeholder in a label and swap the real sprite in on the EDT when it is ready.
+ * A sprite that is already cached completes immediately without a thread hop.
+ */
+public final class AssetLoader {
+
+    private static final int THREADS = 2;
+
+    private static final AssetLoader SHARED = new AssetLoader(SpriteCache.shared());
+
+    // Marks which request a label is showing, so a late load can't overwrite a newer one
+    private static final String LABEL_REQUEST = "AssetLoader.request";
+
+    private final SpriteCache cache;
+    private final ExecutorService executor;
+    // Loads in progress, so asking for the same sprite twice shares one decode
+    private final Map<String, CompletableFuture<BufferedImage>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, Icon> placeholderIcons = new ConcurrentHashMap<>();
+
+    public AssetLoader(SpriteCache cache) {
+        this.cache = cache;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(THREADS, r -> {
+            Thread t = new Thread(r, "Asset Loader " + count.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    public static AssetLoader shared() {
+        return SHARED;
+    }
+
+    public SpriteCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Starts loading a sprite scaled to width x height.
+     * @return A future for the image; it completes with null if the asset could not be read.
+     */
+    public CompletableFuture<BufferedImage> load(String path, int width, int height) {
+        BufferedImage cached = cache.peek(path, width, height, 1.0);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        String key = path + '@' + width + 'x' + height;
+        CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+        CompletableFuture<BufferedImage> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        executor.execute(() -> {
+            try {
+                future.complete(cache.get(path, width, height));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, future);
+            }
+        });
+        return future;
+    }
+
+    public CompletableFuture<BufferedImage> loadMonster(String monsterName, int size) {
+        return load(SpriteCache.monsterPath(monsterName), size, size);
+    }
+
+    /**
+     * Shows a placeholder in the label right away and the sprite once it has loaded.
+     * Must be called on the EDT. If the label is given another sprite before this one
+     * arrives, the stale result is dropped.
+     * @param missingText Text shown instead if the sprite can't be read.
+     */
+    public void loadInto(JLabel label, String path, int width, int height, String missingText) {
+        Object request = new Object();
+        label.putClientProperty(LABEL_REQUEST, request);
+        CompletableFuture<BufferedImage> future = load(path, width, height);
+        BufferedImage ready = future.getNow(null);
+        if (ready != null) {
+            label.setIcon(new ImageIcon(ready));
+            label.setText(null);
+            return;
+        }
+        label.setIcon(placeholderIcon(width, height));
+        label.setText(null);
+        future.whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+            if (label.getClientProperty(LABEL_REQUEST) != request) return;
+            if (image != null) {
+                label.setIcon(new ImageIcon(image));
+            } else {
+                label.setIcon(null);
+                label.setText(missingText);
+            }
+        }));
+    }
+
+    public Icon placeholderIcon(int width, int height) {
+        return placeholderIcons.computeIfAbsent(((long) width << 32) | height,
+                k -> new ImageIcon(placeholder(width, height)));
+    }
+
+    /** A faint rounded box the size of a sprite, drawn while the real one loads. */
+    public static BufferedImage placeholder(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int arc = Math.max(4, Math.min(width, height) / 4);
+        g.setColor(new Color(128, 128, 128, 60));
+        g.fillRoundRect(1, 1, width - 2, height - 2, arc, arc);
+        g.setColor(new Color(128, 128, 128, 120));
+        g.setStroke(new BasicStroke(1f));
+        g.drawRoundRect(1, 1, width - 3, height - 3, arc, arc);
+        g.dispose();
+        return image;
+    }
+}
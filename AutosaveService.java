@@ -0,0 +1,250 @@
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+
+/**
+ * Saves in the background so a frame never waits on the disk.
+ * Game events are queued as small journal writes and handed to a dedicated thread, which
+ * waits for a burst of changes to settle, appends them all and fsyncs once. When the
+ * journal has grown (or {@link #requestSnapshot} was called) the thread asks the EDT for
+ * a copy-on-write capture of the game state, which costs next to nothing there, and
+ * serializes and syncs the full snapshot itself.
+ *
+ * A snapshot starts a new, empty journal. Events submitted after the capture aren't in the
+ * snapshot, so they are written to the new journal rather than the one it replaces. That
+ * split is exact when events are recorded on the thread that captures (the EDT).
+ */
+public final class AutosaveService implements AutoCloseable {
+
+    private static final long QUIET_NANOS = TimeUnit.MILLISECONDS.toNanos(250); // a burst ends after this long without events
+    private static final long MAX_DELAY_NANOS = TimeUnit.SECONDS.toNanos(2); // a steady stream is still written this often
+    private static final long CAPTURE_TIMEOUT_MILLIS = 1000;
+
+    private final SaveStore store;
+    private final Supplier<SaveGame> capture; // called on the EDT
+    private final Executor captureThread;
+    private final ConcurrentLinkedQueue<Consumer<SaveStore>> events = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean snapshotRequested = false;
+
+    // Metrics; written by the autosave thread only
+    private final AtomicLong eventsSubmitted = new AtomicLong();
+    private long eventsWritten = 0; // under the store lock
+    private volatile long writes = 0;
+    private volatile long snapshots = 0;
+    private volatile long bytesWritten = 0;
+    private volatile long lastSaveNanos = 0;
+    private volatile long maxSaveNanos = 0;
+    private volatile long totalSaveNanos = 0;
+
+    /**
+     * @param store An already loaded store; the service owns it from now on and closes it.
+     * @param capture Builds the current {@link SaveGame}. Runs on the EDT and must be cheap,
+     *                e.g. by using {@link MonsterRoster#snapshot}.
+     */
+    public AutosaveService(SaveStore store, Supplier<SaveGame> capture) {
+        this(store, capture, SwingUtilities::invokeLater);
+    }
+
+    /** @param captureThread Runs the capture; the EDT in the game, something controllable in tests. */
+    AutosaveService(SaveStore store, Supplier<SaveGame> capture, Executor captureThread) {
+        this.store = store;
+        this.capture = capture;
+        this.captureThread = captureThread;
+        this.thread = new Thread(this::run, "Autosave");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+    }
+
+    /**
+     * Queues a journal write. The lambda runs later on the autosave thread, so it must only
+     * use values captured now, never live game objects.
+     */
+    public void record(Consumer<SaveStore> event) {
+        if (!running) return;
+        events.add(event); // Queued before it is counted, so a capture never counts one that isn't there yet
+        eventsSubmitted.incrementAndGet();
+        LockSupport.unpark(thread);
+    }
+
+    /** Asks for a full snapshot with the next write. */
+    public void requestSnapshot() {
+        snapshotRequested = true;
+        LockSupport.unpark(thread);
+    }
+
+    public long getEventsSubmitted() {
+        return eventsSubmitted.get();
+    }
+
+    /** Journal flushes; each covers one burst of events. */
+    public long getWrites() {
+        return writes;
+    }
+
+    public long getSnapshots() {
+        return snapshots;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /** How long the last write (journal append, fsync and any snapshot) took. */
+    public double getLastSaveMillis() {
+        return lastSaveNanos / 1e6;
+    }
+
+    public double getMaxSaveMillis() {
+        return maxSaveNanos / 1e6;
+    }
+
+    public double getAverageSaveMillis() {
+        return writes == 0 ? 0 : totalSaveNanos / 1e6 / writes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Autosave[events=%d, writes=%d, snapshots=%d, bytes=%,d, save ms last %.2f avg %.2f max %.2f]",
+                getEventsSubmitted(), writes, snapshots, bytesWritten,
+                getLastSaveMillis(), getAverageSaveMillis(), getMaxSaveMillis());
+    }
+
+    /**
+     * Writes whatever is still queued plus a final snapshot and closes the store. Meant for
+     * shutdown. The state is captured on the EDT like any other snapshot; only if the EDT
+     * doesn't answer (it has exited, or is the thread stuck in System.exit) is it captured
+     * here, since then nothing is changing it.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Capture last = SwingUtilities.isEventDispatchThread() ? captureHere() : captureOnEdt();
+        if (last == null) {
+            last = captureHere();
+        }
+        synchronized (store) {
+            write(last);
+            try {
+                store.close();
+            } catch (IOException e) {
+                System.err.println("Could not close the save journal: " + e.getMessage());
+            }
+        }
+        System.out.println(this);
+    }
+
+    private void run() {
+        while (running) {
+            if (events.isEmpty() && !snapshotRequested) {
+                LockSupport.park(this);
+                continue;
+            }
+            // Let the burst finish so it costs one write and one fsync
+            long start = System.nanoTime();
+            long seen = eventsSubmitted.get();
+            while (running && System.nanoTime() - start < MAX_DELAY_NANOS) {
+                LockSupport.parkNanos(this, QUIET_NANOS);
+                long now = eventsSubmitted.get();
+                if (now == seen) break;
+                seen = now;
+            }
+            if (!running) break;
+            synchronized (store) {
+                Capture captured = null;
+                if (snapshotRequested || store.needsCompaction()) {
+                    // Cleared first, so a request that comes in during the capture gets its own snapshot
+                    boolean requested = snapshotRequested;
+                    snapshotRequested = false;
+                    captured = captureOnEdt();
+                    if (captured == null && requested) {
+                        snapshotRequested = true; // EDT busy; try again with the next write
+                    }
+                }
+                write(captured);
+            }
+        }
+    }
+
+    /**
+     * Appends the queued events and syncs. With a capture, the events it already covers go
+     * to the current journal, then the snapshot starts a new one, which gets the rest.
+     */
+    private void write(Capture captured) {
+        long start = System.nanoTime();
+        long bytes = 0;
+        try {
+            long journalBefore = store.getJournalBytes();
+            // The old journal still gets the captured events, in case the snapshot write fails
+            appendEvents(captured == null ? Long.MAX_VALUE : captured.eventsBefore);
+            store.sync();
+            bytes += store.getJournalBytes() - journalBefore;
+            if (captured != null) {
+                bytes += store.writeSnapshot(captured.state);
+                snapshots++;
+                journalBefore = store.getJournalBytes();
+                appendEvents(Long.MAX_VALUE);
+                store.sync();
+                bytes += store.getJournalBytes() - journalBefore;
+            }
+        } catch (IOException e) {
+            System.err.println("Autosave failed: " + e.getMessage());
+        }
+        long elapsed = System.nanoTime() - start;
+        writes++;
+        bytesWritten += bytes;
+        lastSaveNanos = elapsed;
+        maxSaveNanos = Math.max(maxSaveNanos, elapsed);
+        totalSaveNanos += elapsed;
+    }
+
+    /** Applies queued events until {@code limit} have been written in total. */
+    private void appendEvents(long limit) {
+        Consumer<SaveStore> event;
+        while (eventsWritten < limit && (event = events.poll()) != null) {
+            event.accept(store);
+            eventsWritten++;
+        }
+    }
+
+    /** The game state together with how many events it already reflects. */
+    private static final class Capture {
+        final long eventsBefore;
+        final SaveGame state;
+
+        Capture(long eventsBefore, SaveGame state) {
+            this.eventsBefore = eventsBefore;
+            this.state = state;
+        }
+    }
+
+    private Capture captureHere() {
+        long before = eventsSubmitted.get(); // Counted first: the state includes at least these
+        return new Capture(before, capture.get());
+    }
+
+    private Capture captureOnEdt() {
+        CompletableFuture<Capture> future = new CompletableFuture<>();
+        try {
+            captureThread.execute(() -> future.complete(captureHere()));
+            return future.get(CAPTURE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            return null; // EDT busy (or shutting down); the next write will try again
+        }
+    }
+}
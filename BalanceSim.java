@@ -0,0 +1,253 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo balancing tool: plays millions of seeded battles with {@link BattleEngine}
+ * across all cores and prints win rates, turn counts and coin yield per party makeup.
+ *
+ * Usage: java BalanceSim [--runs=N] [--seed=S]
+ *
+ * The work is cut into a fixed number of tasks, each with its own SplittableRandom split
+ * from the seed in order, so results are the same no matter how many cores run them.
+ */
+public class BalanceSim {
+
+    private static final int TASKS = 256;
+    private static final int WILD_GAUNTLET = 10; // wild battles in a row without healing
+    private static final int MAX_TRACKED_TURNS = 64; // longer battles land in the last histogram bucket
+
+    /** A named starting party. Built fresh for every simulated run. */
+    private static final class Makeup {
+        final String name;
+        final int starters;
+        final int caught;
+        final Species species; // if set, the caught monsters are all of this species
+
+        Makeup(String name, int starters, int caught) {
+            this(name, starters, caught, null);
+        }
+
+        Makeup(String name, int starters, int caught, Species species) {
+            this.name = name;
+            this.starters = starters;
+            this.caught = caught;
+            this.species = species;
+        }
+
+        List<Monster> build(SplittableRandom random, BattleRules rules) {
+            List<Monster> party = new ArrayList<>(starters + caught);
+            for (int i = 0; i < starters; i++) {
+                party.add(new Monster()); // Doggin starter
+            }
+            for (int i = 0; i < caught; i++) {
+                party.add(species != null
+                        ? BattleEngine.generateWildMonster(random, rules, species)
+                        : BattleEngine.generateWildMonster(random, rules));
+            }
+            return party;
+        }
+    }
+
+    private static final Makeup[] MAKEUPS = {
+        new Makeup("1 starter", 1, 0),
+        new Makeup("1 starter + 2 caught", 1, 2),
+        new Makeup("1 starter + 5 caught", 1, 5),
+        new Makeup("3 starters", 3, 0),
+        new Makeup("6 caught only", 0, 6),
+    };
+
+    /** Accumulated results for one scenario; merged across tasks. */
+    private static final class Stats {
+        long battles;
+        long wins;
+        long turns;
+        long coins;
+        final long[] turnHistogram = new long[MAX_TRACKED_TURNS + 1];
+
+        void record(BattleEngine engine) {
+            battles++;
+            if (engine.getOutcome() == BattleEngine.Outcome.PLAYER_WON) {
+                wins++;
+            }
+            turns += engine.getTurns();
+            turnHistogram[Math.min(engine.getTurns(), MAX_TRACKED_TURNS)]++;
+        }
+
+        Stats merge(Stats other) {
+            battles += other.battles;
+            wins += other.wins;
+            turns += other.turns;
+            coins += other.coins;
+            for (int i = 0; i < turnHistogram.length; i++) {
+                turnHistogram[i] += other.turnHistogram[i];
+            }
+            return this;
+        }
+
+        int turnPercentile(double p) {
+            long target = (long) Math.ceil(battles * p);
+            long seen = 0;
+            for (int i = 0; i < turnHistogram.length; i++) {
+                seen += turnHistogram[i];
+                if (seen >= target) return i;
+            }
+            return MAX_TRACKED_TURNS;
+        }
+
+        String summary(long runs) {
+            return String.format("win %6.2f%%  turns avg %5.2f p50 %2d p90 %2d p99 %2d  coins/run %10.1f",
+                    battles == 0 ? 0 : 100.0 * wins / battles,
+                    battles == 0 ? 0 : (double) turns / battles,
+                    turnPercentile(0.50), turnPercentile(0.90), turnPercentile(0.99),
+                    runs == 0 ? 0 : (double) coins / runs);
+        }
+    }
+
+    /** One scenario: how to play a single run with a fresh party. */
+    private interface Scenario {
+        void play(List<Monster> party, SplittableRandom random, BattleRules rules, Stats stats);
+    }
+
+    /** Wild encounters back to back, no healing, until the gauntlet ends or the party blacks out. */
+    private static void playWildGauntlet(List<Monster> party, SplittableRandom random, BattleRules rules, Stats stats) {
+        for (int i = 0; i < WILD_GAUNTLET; i++) {
+            Monster active = null;
+            for (Monster m : party) {
+                if (!m.isFainted()) {
+                    active = m;
+                    break;
+                }
+            }
+            if (active == null) return;
+
+            BattleEngine engine = BattleEngine.wild(party, active, random, rules);
+            BattleEngine.TurnResult turn;
+            do {
+                turn = engine.performTurn();
+            } while (!engine.isOver());
+            stats.coins += turn.getCoinsAwarded();
+            stats.record(engine);
+        }
+    }
+
+    /** One wild battle against a given species. */
+    private static void playDuel(List<Monster> party, SplittableRandom random, BattleRules rules, Species wild,
+                                 Stats stats) {
+        BattleEngine engine = BattleEngine.wild(party, party.get(0), random, rules, wild);
+        while (!engine.isOver()) {
+            engine.performTurn();
+        }
+        stats.record(engine);
+    }
+
+    private static void playBoss(List<Monster> party, SplittableRandom random, BattleRules rules, Stats stats) {
+        BattleEngine engine = BattleEngine.boss(party, random, rules);
+        BattleEngine.TurnResult turn = null;
+        while (!engine.isOver()) {
+            turn = engine.performTurn();
+        }
+        if (turn != null) {
+            stats.coins += turn.getCoinsAwarded();
+        }
+        stats.record(engine);
+    }
+
+    /** Runs {@code runs} runs of a scenario split over all cores. */
+    private static Stats simulate(Scenario scenario, Makeup makeup, BattleRules rules, long runs, long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[TASKS];
+        for (int i = 0; i < TASKS; i++) {
+            randoms[i] = root.split();
+        }
+        return IntStream.range(0, TASKS).parallel()
+                .mapToObj(task -> {
+                    long count = runs / TASKS + (task < runs % TASKS ? 1 : 0);
+                    SplittableRandom random = randoms[task];
+                    Stats stats = new Stats();
+                    for (long i = 0; i < count; i++) {
+                        scenario.play(makeup.build(random, rules), random, rules, stats);
+                    }
+                    return stats;
+                })
+                .reduce(Stats::merge) // each task's Stats is its own object, so merging into the left one is safe
+                .orElseGet(Stats::new);
+    }
+
+    public static void main(String[] args) {
+        long runs = 200_000;
+        long seed = 42;
+        for (String arg : args) {
+            if (arg.startsWith("--runs=")) {
+                runs = Long.parseLong(arg.substring("--runs=".length()));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            }
+        }
+
+        long start = System.nanoTime();
+        long totalBattles = 0;
+        System.out.println("Balance sweep: " + runs + " runs per row, seed " + seed
+                + ", " + Runtime.getRuntime().availableProcessors() + " cores");
+
+        // Wild stat ranges
+        BattleRules[] wildVariants = {
+            BattleRules.DEFAULT,
+            BattleRules.DEFAULT.withWildStats(25, 39, 5, 9),
+            BattleRules.DEFAULT.withWildStats(35, 49, 8, 12),
+        };
+        for (BattleRules rules : wildVariants) {
+            System.out.println();
+            System.out.println("Wild gauntlet (" + WILD_GAUNTLET + " battles, no healing): " + rules);
+            for (Makeup makeup : MAKEUPS) {
+                Stats stats = simulate(BalanceSim::playWildGauntlet, makeup, rules, runs, seed);
+                totalBattles += stats.battles;
+                System.out.printf("  %-22s %s%n", makeup.name, stats.summary(runs));
+            }
+        }
+
+        // Element matchups: one caught monster of each wild species against one wild monster of each
+        Species[] wild = SpeciesRegistry.shared().wildSpecies();
+        System.out.println();
+        System.out.println("Matchups (win rate, one caught monster vs one wild): " + BattleRules.DEFAULT);
+        StringBuilder header = new StringBuilder(String.format("  %-22s", "attacker \\ wild"));
+        for (Species defender : wild) {
+            header.append(String.format(" %18s", defender.getName() + " (" + defender.getElement() + ")"));
+        }
+        System.out.println(header);
+        for (Species attacker : wild) {
+            Makeup makeup = new Makeup(attacker.getName() + " (" + attacker.getElement() + ")", 0, 1, attacker);
+            StringBuilder row = new StringBuilder(String.format("  %-22s", makeup.name));
+            for (Species defender : wild) {
+                Stats stats = simulate((party, random, rules, s) -> playDuel(party, random, rules, defender, s),
+                        makeup, BattleRules.DEFAULT, runs, seed);
+                totalBattles += stats.battles;
+                row.append(String.format(" %17.2f%%", 100.0 * stats.wins / Math.max(1, stats.battles)));
+            }
+            System.out.println(row);
+        }
+
+        // Mr. Foster: base attack x increase per stage, plus a flatter stage curve
+        BattleRules[] bossVariants = {
+            BattleRules.DEFAULT,
+            BattleRules.DEFAULT.withBoss(200, 5, 10),
+            BattleRules.DEFAULT.withBoss(200, 10, 5),
+            BattleRules.DEFAULT.withBoss(200, 15, 15),
+            BattleRules.DEFAULT.withBoss(300, 10, 10),
+            BattleRules.DEFAULT.withStageThresholds(90, 70, 50, 30, 0),
+        };
+        for (BattleRules rules : bossVariants) {
+            System.out.println();
+            System.out.println("Boss (full health party): " + rules);
+            for (Makeup makeup : MAKEUPS) {
+                Stats stats = simulate(BalanceSim::playBoss, makeup, rules, runs, seed);
+                totalBattles += stats.battles;
+                System.out.printf("  %-22s %s%n", makeup.name, stats.summary(runs));
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%n%,d battles in %.2f s (%,.0f battles/s)%n", totalBattles, seconds, totalBattles / seconds);
+    }
+}
@@ -1,9 +1,9 @@
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import javax.imageio.ImageIO;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 import javax.swing.*;
 
 public class Battle extends JDialog {
@@ -12,33 +12,47 @@ public class Battle extends JDialog {
     private Monster playerMonster;
     private Monster wildMonster;
     private boolean isBattleOver = false;
+    // Closing the dialog before the battle is decided counts as running away
+    private GameEvent.BattleEnded.Outcome outcome = GameEvent.BattleEnded.Outcome.FLED;
+    private boolean endPublished = false;
+    private EventBus.Subscription coinsSubscription;
 
     private JLabel playerHpLabel;
     private JLabel wildHpLabel;
     private JLabel coinsLabel;
-    private JTextArea messageArea;
+    private final BattleLog log = new BattleLog(BattleLog.DEFAULT_CAPACITY);
     private JButton attackButton;
     private JButton runButton;
     private JButton closeButton;
 
-    private List<Monster> inventory;
+    private final RandomGenerator random;
+
+    // The rules live in the engine; this dialog only shows what it reports
+    private final BattleEngine engine;
 
     // Added for health bars
     private JProgressBar playerHpBar;
     private JProgressBar wildHpBar;
 
-    public Battle(JFrame owner, Game game, Monster playerMonster, List<Monster> inventory) {
+    public Battle(JFrame owner, Game game, Monster playerMonster, List<Monster> inventory, EncounterZone zone) {
         super(owner, "⚔️ Battle Begins!", true);
         this.game = game;
         this.playerMonster = playerMonster;
-        this.inventory = inventory;
-        this.wildMonster = generateRandomWildMonster();
+        this.random = game.getRandom().stream(GameRandom.WILD_BATTLES);
+        Species species = zone.rollSpecies(random);
+        this.engine = species == null
+                ? BattleEngine.wild(inventory, playerMonster, random)
+                : BattleEngine.wild(inventory, playerMonster, random, BattleRules.DEFAULT, species);
+        this.wildMonster = engine.getEnemy();
         setupUI();
+        coinsSubscription = game.getEvents().subscribe(GameEvent.CoinsChanged.class, EventBus.Delivery.SYNC,
+                e -> coinsLabel.setText(String.valueOf(e.getTotal())));
         updateStatus("A wild " + wildMonster.getName() + " appeared!");
         pack();
         setSize(800, 600);
         setLocationRelativeTo(owner);
         setResizable(false);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setVisible(true);
     }
 
@@ -47,7 +61,9 @@ public class Battle extends JDialog {
     public Battle(JFrame owner, Monster playerMonster) {
         super(owner, "⚔️ Battle Begins!", true);
         this.playerMonster = playerMonster;
-        this.wildMonster = generateRandomWildMonster();
+        this.random = new SplittableRandom(); // No game, so no session to draw from
+        this.engine = BattleEngine.wild(new ArrayList<>(List.of(playerMonster)), playerMonster, random);
+        this.wildMonster = engine.getEnemy();
         setupUI();
         updateStatus("A wild " + wildMonster.getName() + " appeared!");
         pack();
@@ -57,13 +73,20 @@ public class Battle extends JDialog {
         setVisible(true);
     }
 
+    /** Tells the game the battle is over; runs once, however the dialog was closed. */
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (game != null && !endPublished) {
+            endPublished = true;
+            coinsSubscription.cancel();
+            record(BattleRecording.Action.END);
+            game.getEvents().publishBattleEnded(false, outcome);
+        }
+    }
+
     public Monster generateRandomWildMonster() {
-        Random rand = new Random();
-        String[] names = { "Snorb", "Fluffin", "Dirtbeast", "Barkachu" };
-        int index = rand.nextInt(names.length);
-        int hp = rand.nextInt(10) + 20; // 20-29 HP
-        int attack = rand.nextInt(5) + 3; // 3-7 Attack
-        return new Monster(names[index], hp, attack);
+        return BattleEngine.generateWildMonster(random);
     }
 
     private void setupUI() {
@@ -84,54 +107,45 @@ public class Battle extends JDialog {
 
         add(statsPanel, BorderLayout.NORTH);
 
-        messageArea = new JTextArea(6, 40);
-        messageArea.setEditable(false);
-        messageArea.setFont(new Font("Monospaced", Font.PLAIN, 24));
-        messageArea.setLineWrap(true);
-        messageArea.setWrapStyleWord(true);
-        JScrollPane scrollPane = new JScrollPane(messageArea);
-        scrollPane.setBorder(BorderFactory.createTitledBorder("Battle Log"));
-        add(scrollPane, BorderLayout.CENTER);
+        add(log.createView("Battle Log", new Font("Monospaced", Font.PLAIN, 24), 6), BorderLayout.CENTER);
 
         JPanel buttonPanel = new JPanel(new FlowLayout());
         attackButton = new JButton("Attack");
         runButton = new JButton("Run");
         closeButton = new JButton("Close");
+        JButton exportButton = new JButton("Export Log");
 
         Font buttonFont = new Font("Arial", Font.BOLD, 28);
         attackButton.setFont(buttonFont);
         runButton.setFont(buttonFont);
         closeButton.setFont(buttonFont);
+        exportButton.setFont(buttonFont);
 
         buttonPanel.add(attackButton);
         buttonPanel.add(runButton);
         buttonPanel.add(closeButton);
+        buttonPanel.add(exportButton);
 
         add(buttonPanel, BorderLayout.SOUTH);
 
         attackButton.addActionListener(e -> performTurn());
         runButton.addActionListener(e -> {
+            record(BattleRecording.Action.RUN);
+            engine.flee();
             updateStatus("You ran away safely!");
             endBattle();
         });
         closeButton.addActionListener((ActionEvent e) -> dispose());
+        exportButton.addActionListener(e -> log.exportWithChooser(this));
         closeButton.setVisible(false);
     }
 
     private JPanel createMonsterPanel(Monster monster, boolean isPlayer) {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
 
-        try {
-            String path = "Game Items/" + monster.getName().toLowerCase() + ".png";
-            // Use getClass().getResource() for loading from classpath in JAR
-            ImageIcon icon = new ImageIcon(ImageIO.read(getClass().getResource(path)));
-            Image scaled = icon.getImage().getScaledInstance(64, 64, Image.SCALE_SMOOTH);
-            JLabel imageLabel = new JLabel(new ImageIcon(scaled));
-            panel.add(imageLabel);
-        } catch (IOException e) {
-            System.err.println("Error loading image for " + monster.getName() + ": " + e.getMessage());
-            panel.add(new JLabel("[Missing Image]"));
-        }
+        JLabel spriteLabel = new JLabel();
+        AssetLoader.shared().loadInto(spriteLabel, monster.getSpecies().getSpritePath(), 64, 64, "[Missing Image]");
+        panel.add(spriteLabel);
 
         JPanel textPanel = new JPanel(new GridLayout(2, 1));
         textPanel.setOpaque(false);
@@ -175,50 +189,46 @@ public class Battle extends JDialog {
     }
 
     private void updateStatus(String message) {
+        updateStatus(BattleLog.Kind.INFO, message);
+    }
+
+    private void updateStatus(BattleLog.Kind kind, String message) {
         if (!message.isEmpty()) {
-            messageArea.append(message + "\n");
+            log.add(kind, message);
         }
 
         playerHpLabel.setText("HP: " + playerMonster.getHp() + "/" + playerMonster.getMaxHealth());
         wildHpLabel.setText("HP: " + wildMonster.getHp() + "/" + wildMonster.getMaxHealth());
 
-        animateBar(playerHpBar, playerMonster.getHp());
-        animateBar(wildHpBar, wildMonster.getHp());
-
-        if (game != null) {
-             coinsLabel.setText(String.valueOf(game.getCoins()));
-        }
+        Tweens.shared().animateBar(playerHpBar, playerMonster.getHp());
+        Tweens.shared().animateBar(wildHpBar, wildMonster.getHp());
     }
 
-    private void animateBar(JProgressBar bar, int targetValue) {
-        Timer timer = new Timer(10, null);
-        timer.addActionListener(e -> {
-            int current = bar.getValue();
-            if (current < targetValue) {
-                bar.setValue(Math.min(current + 1, targetValue));
-            } else if (current > targetValue) {
-                bar.setValue(Math.max(current - 1, targetValue));
-            } else {
-                ((Timer) e.getSource()).stop();
-            }
-        });
-        timer.start();
+    private void logEffectiveness(BattleLog.Kind kind, int multiplier) {
+        String text = Element.describe(multiplier);
+        if (text != null) {
+            updateStatus(kind, text);
+        }
     }
 
     private void performTurn() {
         if (isBattleOver) return;
 
-        updateStatus("👉 " + playerMonster.getName() + " attacks!");
-        wildMonster.takeDamage(playerMonster.getAttack());
-        updateStatus("You dealt " + playerMonster.getAttack() + " damage!");
+        record(BattleRecording.Action.ATTACK);
+        BattleEngine.TurnResult turn = engine.performTurn();
+        if (turn.getAttacker() == null) return;
+
+        updateStatus(BattleLog.Kind.PLAYER_ATTACK, "👉 " + turn.getAttacker().getName() + " attacks!");
+        updateStatus(BattleLog.Kind.PLAYER_ATTACK, "You dealt " + turn.getPlayerDamage() + " damage!");
+        logEffectiveness(BattleLog.Kind.PLAYER_ATTACK, turn.getPlayerMultiplier());
 
-        if (wildMonster.getHp() <= 0) {
-            updateStatus("✅ Wild " + wildMonster.getName() + " was defeated!");
+        if (turn.isEnemyDefeated()) {
+            updateStatus(BattleLog.Kind.RESULT, "✅ Wild " + wildMonster.getName() + " was defeated!");
+            outcome = GameEvent.BattleEnded.Outcome.WON; // Counts toward the boss once the dialog closes
 
             if (game != null) {
-                game.addCoins(5);
-                game.incrementBattlesWon(); // Increment counter for boss battle
-                updateStatus("💰 You earned 5 coins!");
+                game.addCoins(turn.getCoinsAwarded());
+                updateStatus(BattleLog.Kind.REWARD, "💰 You earned " + turn.getCoinsAwarded() + " coins!");
             }
 
             int choice = JOptionPane.showConfirmDialog(this,
@@ -227,20 +237,15 @@ public class Battle extends JDialog {
                             JOptionPane.YES_NO_OPTION);
 
             if (choice == JOptionPane.YES_OPTION) {
-                double chance = Math.random();
-                if (chance < 0.75) { // 75% chance to catch
-                    // Create a new instance of the monster to avoid issues with it being already "fainted"
-                    // Or, reset the wildMonster's HP and add it. For now, let's just create a new one.
-                    // This assumes the wildMonster data is only for battle and not intended to be "caught" as is.
-                    // Let's go with creating a new monster to be added
-                    Monster caughtMonster = new Monster(wildMonster.getName(), wildMonster.getElement(),
-                                                        wildMonster.getAttack(), wildMonster.getAge(),
-                                                        wildMonster.getWeight(), wildMonster.getMaxHealth());
-                    caughtMonster.setHp(caughtMonster.getMaxHealth()); // Caught monsters start full health
-                    inventory.add(caughtMonster);
-                    updateStatus("🎉 " + caughtMonster.getName() + " was caught!");
+                record(BattleRecording.Action.CATCH);
+                Monster caughtMonster = engine.attemptCatch();
+                if (caughtMonster != null) {
+                    if (game != null) {
+                        game.getEvents().publishMonsterCaught(caughtMonster);
+                    }
+                    updateStatus(BattleLog.Kind.CATCH, "🎉 " + caughtMonster.getName() + " was caught!");
                 } else {
-                    updateStatus("💨 " + wildMonster.getName() + " escaped!");
+                    updateStatus(BattleLog.Kind.CATCH, "💨 " + wildMonster.getName() + " escaped!");
                 }
             } else {
                 updateStatus("You chose not to catch " + wildMonster.getName() + ".");
@@ -251,39 +256,35 @@ public class Battle extends JDialog {
         }
 
         // Wild monster's turn if it's still alive
-        updateStatus("⚡ Wild " + wildMonster.getName() + " attacks!");
-        playerMonster.takeDamage(wildMonster.getAttack());
-        updateStatus("You took " + wildMonster.getAttack() + " damage!");
-
-        if (playerMonster.isFainted()) {
-            updateStatus("💀 Your " + playerMonster.getName() + " fainted!");
-            // Check if other monsters are available
-            Monster nextMonster = getNextAvailableMonster();
-            if (nextMonster != null) {
-                playerMonster = nextMonster; // Switch to the next monster
-                updateStatus("Go! " + playerMonster.getName() + "!");
-                // Re-create the player monster panel to update image/labels
-                // This is a bit clunky, but works. A better solution might be
-                // to have the createMonsterPanel return a JPanel and then just update its components.
-                // For simplicity here, just update labels/bars.
+        updateStatus(BattleLog.Kind.ENEMY_ATTACK, "⚡ Wild " + wildMonster.getName() + " attacks!");
+        updateStatus(BattleLog.Kind.ENEMY_ATTACK, "You took " + turn.getEnemyDamage() + " damage!");
+        logEffectiveness(BattleLog.Kind.ENEMY_ATTACK, turn.getEnemyMultiplier());
+        if (game != null) {
+            game.monsterHpChanged(turn.getTarget());
+        }
+
+        if (turn.isPlayerFainted()) {
+            updateStatus(BattleLog.Kind.FAINT, "💀 Your " + turn.getTarget().getName() + " fainted!");
+            if (turn.getSwitchedIn() != null) {
+                playerMonster = turn.getSwitchedIn(); // Switch to the next monster
+                updateStatus(BattleLog.Kind.SWITCH, "Go! " + playerMonster.getName() + "!");
+                // Just update labels/bars; the sprite stays the same
                 playerHpLabel.setText("HP: " + playerMonster.getHp() + "/" + playerMonster.getMaxHealth());
                 playerHpBar.setMaximum(playerMonster.getMaxHealth());
-                animateBar(playerHpBar, playerMonster.getHp());
-                // Also update the image if you want to switch sprite (requires more work here)
+                Tweens.shared().animateBar(playerHpBar, playerMonster.getHp());
             } else {
-                updateStatus("All your monsters have fainted! You blacked out.");
+                updateStatus(BattleLog.Kind.RESULT, "All your monsters have fainted! You blacked out.");
+                outcome = GameEvent.BattleEnded.Outcome.LOST;
                 endBattle();
             }
         }
     }
 
-    private Monster getNextAvailableMonster() {
-        for (Monster m : inventory) {
-            if (!m.isFainted() && m != playerMonster) {
-                return m;
-            }
+    /** For the session recording; see {@link Game#recordBattleAction}. */
+    private void record(BattleRecording.Action action) {
+        if (game != null) {
+            game.recordBattleAction(action, 0, 0);
         }
-        return null; // No other non-fainted monsters
     }
 
     private void endBattle() {
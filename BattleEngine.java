@@ -0,0 +1,458 @@
+import java.util.List;
+import java.util.random.RandomGenerator;
+import jdk.jfr.EventType;
+
+/**
+ * The battle rules, without any Swing.
+ * An engine holds one battle's participants and resolves it a turn at a time; every call to
+ * {@link #performTurn()} fills in (and returns) the same {@link TurnResult}, so running a
+ * battle allocates nothing after setup. {@link Battle} and {@link BossBattle} are views
+ * that turn those results into log lines, bars and dialogs.
+ */
+public final class BattleEngine {
+
+    public enum Kind { WILD, BOSS }
+
+    public enum Outcome { ONGOING, PLAYER_WON, PLAYER_LOST, FLED }
+
+    public static final String BOSS_NAME = "Mr. Foster";
+    // Checked before allocating a flight event, so turns stay allocation-free unless recording
+    private static final EventType TURN_EVENT = EventType.getEventType(FlightEvents.Turn.class);
+    private static final EventType STAGE_EVENT = EventType.getEventType(FlightEvents.BossStage.class);
+    /** Wild battles to win before Mr. Foster can be challenged. */
+    public static final int BOSS_THRESHOLD = 10;
+
+    private final Kind kind;
+    private final BattleRules rules;
+    private final List<Monster> party;
+    private final Monster enemy;
+    private final RandomGenerator random;
+    private final TurnResult result = new TurnResult();
+
+    private Monster active;
+    private Outcome outcome = Outcome.ONGOING;
+    private int stage = 0;
+    private int turns = 0;
+    // Mr. Foster's move state; see BossMove
+    private boolean focused = false;
+    private int recoversUsed = 0;
+
+    private BattleEngine(Kind kind, BattleRules rules, List<Monster> party, Monster active, Monster enemy,
+                         RandomGenerator random) {
+        this.kind = kind;
+        this.rules = rules;
+        this.party = party;
+        this.active = active;
+        this.enemy = enemy;
+        this.random = random;
+    }
+
+    /**
+     * Sets up a wild encounter against a freshly rolled monster.
+     * @param party The player's monsters; caught monsters are added to it.
+     * @param active The monster the player sends out first.
+     */
+    public static BattleEngine wild(List<Monster> party, Monster active, RandomGenerator random) {
+        return wild(party, active, random, BattleRules.DEFAULT);
+    }
+
+    public static BattleEngine wild(List<Monster> party, Monster active, RandomGenerator random, BattleRules rules) {
+        return new BattleEngine(Kind.WILD, rules, party, active, generateWildMonster(random, rules), random);
+    }
+
+    /** A wild battle against a given species, e.g. one rolled from an {@link EncounterZone}. */
+    public static BattleEngine wild(List<Monster> party, Monster active, RandomGenerator random, BattleRules rules,
+                                    Species species) {
+        return new BattleEngine(Kind.WILD, rules, party, active, generateWildMonster(random, rules, species), random);
+    }
+
+    /** Sets up the Mr. Foster fight, starting with the first unfainted monster in the party. */
+    public static BattleEngine boss(List<Monster> party, RandomGenerator random) {
+        return boss(party, random, BattleRules.DEFAULT);
+    }
+
+    public static BattleEngine boss(List<Monster> party, RandomGenerator random, BattleRules rules) {
+        BattleEngine engine = new BattleEngine(Kind.BOSS, rules, party, null,
+                new Monster(BOSS_NAME, rules.bossHp, rules.bossBaseAttack), random);
+        engine.active = engine.nextAvailable(null);
+        if (engine.active == null) {
+            engine.outcome = Outcome.PLAYER_LOST;
+        }
+        return engine;
+    }
+
+    public static Monster generateWildMonster(RandomGenerator random) {
+        return generateWildMonster(random, BattleRules.DEFAULT);
+    }
+
+    public static Monster generateWildMonster(RandomGenerator random, BattleRules rules) {
+        Species[] wild = SpeciesRegistry.shared().wildSpecies();
+        return generateWildMonster(random, rules, wild[random.nextInt(wild.length)]);
+    }
+
+    public static Monster generateWildMonster(RandomGenerator random, BattleRules rules, Species species) {
+        int hp = rules.wildHpMin + random.nextInt(rules.wildHpMax - rules.wildHpMin + 1); // 20-29 HP by default
+        int attack = rules.wildAttackMin + random.nextInt(rules.wildAttackMax - rules.wildAttackMin + 1); // 3-7 Attack
+        return new Monster(species, hp, attack);
+    }
+
+    /**
+     * Resolves one full turn: the player's monster attacks, then (if it is still standing)
+     * the enemy strikes back. Does nothing once the battle is over.
+     * Mr. Foster uses {@link BossMove#STRIKE}.
+     * @return This engine's reusable result object, describing what happened.
+     */
+    public TurnResult performTurn() {
+        return performTurn(BossMove.STRIKE);
+    }
+
+    /**
+     * Like {@link #performTurn()}, with Mr. Foster answering with {@code bossMove} (STRIKE
+     * if it isn't allowed right now). Wild monsters always just attack.
+     */
+    public TurnResult performTurn(BossMove bossMove) {
+        if (!TURN_EVENT.isEnabled()) {
+            return resolveTurn(bossMove);
+        }
+        FlightEvents.Turn event = new FlightEvents.Turn();
+        event.begin();
+        TurnResult r = resolveTurn(bossMove);
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = kind.name();
+            event.attacker = r.attacker == null ? null : r.attacker.getName();
+            event.enemy = enemy.getName();
+            event.playerDamage = r.playerDamage;
+            event.enemyDamage = r.enemyDamage;
+            event.bossMove = r.bossMove == null ? null : r.bossMove.name();
+            event.outcome = r.outcome.name();
+            event.commit();
+        }
+        return r;
+    }
+
+    private TurnResult resolveTurn(BossMove bossMove) {
+        TurnResult r = result;
+        r.reset(stage);
+        if (outcome != Outcome.ONGOING || active == null || active.isFainted()) {
+            r.outcome = outcome;
+            return r;
+        }
+        turns++;
+
+        // --- Player's turn ---
+        r.attacker = active;
+        r.playerMultiplier = active.getElement().against(enemy.getElement());
+        r.playerDamage = Element.damage(active.getAttack(), active.getElement(), enemy.getElement());
+        enemy.takeDamage(r.playerDamage);
+
+        if (kind == Kind.BOSS) {
+            int stageBefore = stage;
+            stage = nextStage(stage, enemy.getHp(), enemy.getMaxHealth(), rules);
+            if (stage == stageBefore + 1) {
+                enemy.setAttack(enemy.getAttack() + rules.bossDamageIncreasePerStage); // Increase boss damage
+                if (STAGE_EVENT.isEnabled()) {
+                    FlightEvents.BossStage event = new FlightEvents.BossStage(); // An instant; see BossStage
+                    if (event.shouldCommit()) {
+                        event.fromStage = stageBefore;
+                        event.toStage = stage;
+                        event.bossHp = enemy.getHp();
+                        event.bossAttack = enemy.getAttack();
+                        event.commit();
+                    }
+                }
+            }
+            r.stageAfter = stage;
+            r.enemyAttackAfter = enemy.getAttack();
+        }
+
+        if (enemy.isFainted()) {
+            r.enemyDefeated = true;
+            r.coinsAwarded = kind == Kind.BOSS ? rules.bossCoinReward : rules.wildCoinReward;
+            outcome = Outcome.PLAYER_WON;
+            r.outcome = outcome;
+            return r;
+        }
+
+        // --- Enemy's turn ---
+        if (kind == Kind.BOSS) {
+            bossTurn(r, bossMove);
+        } else {
+            r.target = active;
+            r.enemyMultiplier = enemy.getElement().against(active.getElement());
+            r.enemyDamage = Element.damage(enemy.getAttack(), enemy.getElement(), active.getElement());
+            active.takeDamage(r.enemyDamage);
+        }
+
+        if (active.isFainted()) {
+            r.playerFainted = true;
+            Monster next = nextAvailable(active);
+            if (next != null) {
+                active = next;
+                r.switchedIn = next;
+            } else {
+                outcome = Outcome.PLAYER_LOST;
+            }
+        }
+        r.outcome = outcome;
+        return r;
+    }
+
+    /**
+     * Rolls to catch the defeated wild monster. On success a full-health copy joins the party.
+     * @return The caught monster, or null if it escaped.
+     */
+    public Monster attemptCatch() {
+        if (kind != Kind.WILD || outcome != Outcome.PLAYER_WON) {
+            return null;
+        }
+        if (random.nextDouble() >= rules.catchChance) {
+            return null;
+        }
+        // New instance so the caught monster isn't the fainted battle copy
+        Monster caught = new Monster(enemy.getSpecies(), enemy.getAttack(),
+                enemy.getAge(), enemy.getWeight(), enemy.getMaxHealth());
+        caught.setHp(caught.getMaxHealth()); // Caught monsters start full health
+        party.add(caught);
+        return caught;
+    }
+
+    public void flee() {
+        if (outcome == Outcome.ONGOING) {
+            outcome = Outcome.FLED;
+        }
+    }
+
+    /** Switches the player's active monster (boss battles let the player pick between turns). */
+    public void setActive(Monster monster) {
+        if (monster != null && !monster.isFainted()) {
+            active = monster;
+        }
+    }
+
+    private void bossTurn(TurnResult r, BossMove move) {
+        if (!move.isAllowed(focused, recoversUsed, enemy.getHp(), enemy.getMaxHealth())) {
+            move = BossMove.STRIKE;
+        }
+        r.bossMove = move;
+        switch (move) {
+            case FOCUS:
+                focused = true;
+                return;
+            case RECOVER:
+                recoversUsed++;
+                r.enemyHealed = enemy.heal(BossMove.recoverAmount(enemy.getMaxHealth()));
+                return;
+            default:
+                break;
+        }
+        int base = move.baseDamage(enemy.getAttack(), focused);
+        focused = false;
+        r.target = active;
+        if (move == BossMove.SLAM && random.nextDouble() >= BossMove.SLAM_HIT_CHANCE) {
+            r.enemyMissed = true;
+            return;
+        }
+        r.enemyMultiplier = enemy.getElement().against(active.getElement());
+        r.enemyDamage = Element.damage(base, enemy.getElement(), active.getElement());
+        active.takeDamage(r.enemyDamage);
+    }
+
+    /**
+     * The boss's stage after a hit leaves him at {@code hp}: at most one stage further per
+     * hit. His attack goes up whenever the stage does.
+     */
+    static int nextStage(int stage, int hp, int maxHp, BattleRules rules) {
+        int currentBossHpPercent = (int) ((double) hp / maxHp * 100);
+
+        int last = rules.getStageCount() - 1;
+
+        for (int i = stage; i <= last; i++) {
+            if (currentBossHpPercent <= rules.getStageThreshold(i) && i < last) {
+                return stage + 1;
+            }
+            if (currentBossHpPercent <= rules.getStageThreshold(last)) {
+                return last;
+            }
+        }
+        return stage;
+    }
+
+    /** First unfainted party member other than {@code exclude}. */
+    private Monster nextAvailable(Monster exclude) {
+        if (party instanceof MonsterRoster) {
+            return ((MonsterRoster) party).nextAvailable(exclude);
+        }
+        for (Monster m : party) {
+            if (!m.isFainted() && !m.equals(exclude)) {
+                return m;
+            }
+        }
+        return null;
+    }
+
+    public BattleRules getRules() {
+        return rules;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Monster getEnemy() {
+        return enemy;
+    }
+
+    public Monster getActive() {
+        return active;
+    }
+
+    public List<Monster> getParty() {
+        return party;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isOver() {
+        return outcome != Outcome.ONGOING;
+    }
+
+    /** Boss stage, 0-based. Always 0 for wild battles. */
+    public int getStage() {
+        return stage;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    /** Whether Mr. Foster's next STRIKE or SLAM is focused (half again as strong). */
+    public boolean isBossFocused() {
+        return focused;
+    }
+
+    public int getBossRecoversUsed() {
+        return recoversUsed;
+    }
+
+    /**
+     * What happened in one turn. The engine reuses a single instance, so read it
+     * before the next call to performTurn.
+     */
+    public static final class TurnResult {
+        Monster attacker;
+        int playerDamage;
+        int playerMultiplier;
+        boolean enemyDefeated;
+        Monster target;
+        int enemyDamage;
+        int enemyMultiplier;
+        boolean enemyMissed;
+        int enemyHealed;
+        BossMove bossMove;
+        boolean playerFainted;
+        Monster switchedIn;
+        int stageBefore;
+        int stageAfter;
+        int enemyAttackAfter;
+        int coinsAwarded;
+        Outcome outcome;
+
+        void reset(int stage) {
+            attacker = null;
+            playerDamage = 0;
+            playerMultiplier = Element.NEUTRAL;
+            enemyDefeated = false;
+            target = null;
+            enemyDamage = 0;
+            enemyMultiplier = Element.NEUTRAL;
+            enemyMissed = false;
+            enemyHealed = 0;
+            bossMove = null;
+            playerFainted = false;
+            switchedIn = null;
+            stageBefore = stage;
+            stageAfter = stage;
+            enemyAttackAfter = 0;
+            coinsAwarded = 0;
+            outcome = Outcome.ONGOING;
+        }
+
+        /** The player's monster that attacked, or null if no turn was taken. */
+        public Monster getAttacker() {
+            return attacker;
+        }
+
+        public int getPlayerDamage() {
+            return playerDamage;
+        }
+
+        /** The element multiplier of the player's hit, in quarters; see {@link Element}. */
+        public int getPlayerMultiplier() {
+            return playerMultiplier;
+        }
+
+        public boolean isEnemyDefeated() {
+            return enemyDefeated;
+        }
+
+        /** The player's monster the enemy hit, or null if the enemy didn't attack. */
+        public Monster getTarget() {
+            return target;
+        }
+
+        public int getEnemyDamage() {
+            return enemyDamage;
+        }
+
+        public int getEnemyMultiplier() {
+            return enemyMultiplier;
+        }
+
+        /** True if the enemy swung and missed (a SLAM); {@link #getTarget} is still set. */
+        public boolean isEnemyMissed() {
+            return enemyMissed;
+        }
+
+        /** HP Mr. Foster recovered this turn. */
+        public int getEnemyHealed() {
+            return enemyHealed;
+        }
+
+        /** What Mr. Foster did this turn, or null in a wild battle or if he didn't get to act. */
+        public BossMove getBossMove() {
+            return bossMove;
+        }
+
+        public boolean isPlayerFainted() {
+            return playerFainted;
+        }
+
+        /** The monster sent out after the active one fainted, or null. */
+        public Monster getSwitchedIn() {
+            return switchedIn;
+        }
+
+        public boolean isStageChanged() {
+            return stageAfter != stageBefore;
+        }
+
+        public int getStageAfter() {
+            return stageAfter;
+        }
+
+        public int getEnemyAttackAfter() {
+            return enemyAttackAfter;
+        }
+
+        public int getCoinsAwarded() {
+            return coinsAwarded;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import javax.swing.AbstractListModel;
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JFileChooser;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
+import javax.swing.ToolTipManager;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * A battle's event log: structured entries in a fixed-size ring buffer, shown through a
+ * {@link JList}, which only lays out and paints the rows on screen. Once full, the oldest
+ * entries drop off, so a long fight costs the same per line as a short one.
+ *
+ * EDT only.
+ */
+public final class BattleLog extends AbstractListModel<BattleLog.Entry> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_CAPACITY = 2000;
+
+    public enum Kind {
+        INFO(Color.BLACK),
+        PLAYER_ATTACK(new Color(0, 90, 170)),
+        ENEMY_ATTACK(new Color(170, 40, 20)),
+        FAINT(new Color(120, 0, 0)),
+        SWITCH(new Color(80, 80, 80)),
+        STAGE(new Color(150, 0, 150)),
+        REWARD(new Color(160, 110, 0)),
+        CATCH(new Color(0, 130, 60)),
+        RESULT(new Color(0, 110, 0));
+
+        final Color color;
+
+        Kind(Color color) {
+            this.color = color;
+        }
+    }
+
+    /** One line of the log. */
+    public static final class Entry {
+        public final long timeMillis;
+        public final Kind kind;
+        public final String text;
+
+        Entry(long timeMillis, Kind kind, String text) {
+            this.timeMillis = timeMillis;
+            this.kind = kind;
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    private final Entry[] ring;
+    private int head = 0; // index of the oldest entry
+    private int size = 0;
+    private long dropped = 0;
+
+    public BattleLog(int capacity) {
+        this.ring = new Entry[capacity];
+    }
+
+    public void add(Kind kind, String text) {
+        Entry entry = new Entry(System.currentTimeMillis(), kind, text);
+        if (size == ring.length) {
+            ring[head] = entry; // overwrite the oldest
+            head = (head + 1) % ring.length;
+            dropped++;
+            fireIntervalRemoved(this, 0, 0);
+            fireIntervalAdded(this, size - 1, size - 1);
+        } else {
+            ring[(head + size) % ring.length] = entry;
+            size++;
+            fireIntervalAdded(this, size - 1, size - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public Entry getElementAt(int index) {
+        return ring[(head + index) % ring.length];
+    }
+
+    /** Entries that fell off the front of the ring. */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Writes the log as gzipped tab-separated lines: time in epoch millis, kind, text.
+     * A header line notes how many earlier entries no longer fit in the buffer.
+     */
+    public void export(File file) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(file)), StandardCharsets.UTF_8))) {
+            out.write("# Monster Dudes battle log v1, " + size + " entries, " + dropped + " earlier entries dropped\n");
+            for (int i = 0; i < size; i++) {
+                Entry e = getElementAt(i);
+                out.write(Long.toString(e.timeMillis));
+                out.write('\t');
+                out.write(e.kind.name());
+                out.write('\t');
+                out.write(e.text.replace('\t', ' ').replace('\n', ' '));
+                out.write('\n');
+            }
+        }
+    }
+
+    /** Asks where to save the log and exports it there. */
+    public void exportWithChooser(Component parent) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("battle-log-" + System.currentTimeMillis() + ".tsv.gz"));
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        try {
+            export(file);
+            System.out.println("Exported " + size + " battle log entries to " + file);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(parent, "Could not export the battle log: " + e.getMessage(),
+                    "Export Failed", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * A scrolling list view of this log that follows new entries.
+     * All rows share one fixed height, so the list never measures rows it isn't showing.
+     */
+    public JScrollPane createView(String title, Font font, int visibleRows) {
+        JList<Entry> list = new JList<>(this);
+        list.setFont(font);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFixedCellHeight(list.getFontMetrics(font).getHeight() + 4);
+        list.setVisibleRowCount(visibleRows);
+        ToolTipManager.sharedInstance().registerComponent(list); // JList asks the renderer for the row's tooltip
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> l, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(l, value, index, isSelected, cellHasFocus);
+                Entry entry = (Entry) value;
+                if (!isSelected) {
+                    setForeground(entry.kind.color);
+                }
+                // Rows are one line high, so a message wider than the log shows in full on hover
+                setToolTipText(getPreferredSize().width > l.getVisibleRect().width ? entry.text : null);
+                return this;
+            }
+        });
+        // Follow the newest line
+        addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                list.ensureIndexIsVisible(e.getIndex1());
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+            }
+        });
+        JScrollPane scrollPane = new JScrollPane(list);
+        scrollPane.setBorder(BorderFactory.createTitledBorder(title));
+        return scrollPane;
+    }
+}
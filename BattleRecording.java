@@ -0,0 +1,121 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * What the player did away from the overworld: the battle buttons, the monster sent out,
+ * Mr. Foster's replies and the Inventory's heals, each keyed by the last tick the overworld
+ * had run when it happened. Battle damage is fixed by the monsters and every roll comes from
+ * the session's battle streams ({@link GameRandom}), so playing these back in order through
+ * {@link BattleEngine} fights the same battles with the same results.
+ *
+ * Text form, one action per line: {@code <tick> <ACTION>} followed by the action's arguments.
+ */
+public final class BattleRecording {
+
+    public enum Action {
+        /** A wild battle started against the encounter's zone. Argument: roster slot sent out. */
+        WILD(1),
+        /** The party was healed and the boss battle started. */
+        BOSS(0),
+        /** Attack in a wild battle. */
+        ATTACK(0),
+        /** Attack in the boss battle. Argument: Mr. Foster's reply, a {@link BossMove} ordinal. */
+        BOSS_TURN(1),
+        /** The boss battle's active monster changed. Argument: its roster slot. */
+        SWITCH(1),
+        RUN(0),
+        /** Catch attempt on the defeated wild monster. */
+        CATCH(0),
+        /** The battle dialog closed. */
+        END(0),
+        /** An Inventory heal paid for at 1 coin per 5 HP. Arguments: roster slot, HP healed. */
+        HEAL(2);
+
+        final int arguments;
+
+        Action(int arguments) {
+            this.arguments = arguments;
+        }
+    }
+
+    /** Receives played-back actions. */
+    @FunctionalInterface
+    public interface Player {
+        void play(Action action, int a, int b);
+    }
+
+    private static final Action[] ACTIONS = Action.values();
+
+    private long[] ticks = new long[64];
+    private byte[] actions = new byte[64];
+    private int[] as = new int[64];
+    private int[] bs = new int[64];
+    private int size = 0;
+    private int next = 0; // playback position
+
+    /** Appends an action that happened after {@code tick}; ticks must not go backwards. */
+    public synchronized void add(long tick, Action action, int a, int b) {
+        if (size == ticks.length) {
+            ticks = Arrays.copyOf(ticks, size * 2);
+            actions = Arrays.copyOf(actions, size * 2);
+            as = Arrays.copyOf(as, size * 2);
+            bs = Arrays.copyOf(bs, size * 2);
+        }
+        ticks[size] = tick;
+        actions[size] = (byte) action.ordinal();
+        as[size] = a;
+        bs[size] = b;
+        size++;
+    }
+
+    public void add(long tick, Action action) {
+        add(tick, action, 0, 0);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Hands the actions recorded up to {@code tick} (and any skipped earlier ones) to {@code player}. */
+    public synchronized void play(long tick, Player player) {
+        while (next < size && ticks[next] <= tick) {
+            player.play(ACTIONS[actions[next]], as[next], bs[next]);
+            next++;
+        }
+    }
+
+    public synchronized void write(PrintWriter out) {
+        for (int i = 0; i < size; i++) {
+            Action action = ACTIONS[actions[i]];
+            StringBuilder line = new StringBuilder().append(ticks[i]).append(' ').append(action);
+            if (action.arguments > 0) line.append(' ').append(as[i]);
+            if (action.arguments > 1) line.append(' ').append(bs[i]);
+            out.println(line);
+        }
+    }
+
+    /** Reads lines written by {@link #write} up to a line equal to {@code end} or the end of the input. */
+    public static BattleRecording read(BufferedReader in, String end) throws IOException {
+        BattleRecording recording = new BattleRecording();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(end)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] parts = line.split(" ");
+            try {
+                Action action = Action.valueOf(parts[1]);
+                if (parts.length != 2 + action.arguments) {
+                    throw new IllegalArgumentException(action + " takes " + action.arguments + " arguments");
+                }
+                recording.add(Long.parseLong(parts[0]), action,
+                        action.arguments > 0 ? Integer.parseInt(parts[2]) : 0,
+                        action.arguments > 1 ? Integer.parseInt(parts[3]) : 0);
+            } catch (RuntimeException e) {
+                throw new IOException("Can't read battle action \"" + line + "\"", e);
+            }
+        }
+        return recording;
+    }
+}
@@ -0,0 +1,86 @@
+import java.util.Arrays;
+
+/**
+ * The tunable numbers behind battles: wild monster stat ranges, rewards, catch chance and
+ * Mr. Foster's stats and stages. Immutable; the with* methods return modified copies so the
+ * balancing tools can sweep variations of {@link #DEFAULT}.
+ */
+public final class BattleRules {
+
+    public static final BattleRules DEFAULT = new BattleRules(
+            20, 29,     // wild HP range
+            3, 7,       // wild attack range
+            5,          // coins per wild win
+            0.75,       // 75% chance to catch
+            200,        // Mr. Foster's HP
+            10,         // Initial boss attack
+            10,         // Amount boss damage increases per stage
+            new int[] { 80, 60, 40, 20, 0 },
+            999999);    // boss reward
+
+    public final int wildHpMin;
+    public final int wildHpMax;
+    public final int wildAttackMin;
+    public final int wildAttackMax;
+    public final int wildCoinReward;
+    public final double catchChance;
+    public final int bossHp;
+    public final int bossBaseAttack;
+    public final int bossDamageIncreasePerStage;
+    // HP % thresholds for stages (e.g., 80% HP remaining for stage 1)
+    // The last threshold (0) means the boss is defeated
+    private final int[] stageThresholds;
+    public final int bossCoinReward;
+
+    public BattleRules(int wildHpMin, int wildHpMax, int wildAttackMin, int wildAttackMax,
+                       int wildCoinReward, double catchChance, int bossHp, int bossBaseAttack,
+                       int bossDamageIncreasePerStage, int[] stageThresholds, int bossCoinReward) {
+        if (wildHpMin < 1 || wildHpMax < wildHpMin || wildAttackMin < 1 || wildAttackMax < wildAttackMin) {
+            throw new IllegalArgumentException("Invalid wild stat range");
+        }
+        if (stageThresholds.length == 0 || bossHp < 1 || bossBaseAttack < 1) {
+            throw new IllegalArgumentException("Invalid boss settings");
+        }
+        this.wildHpMin = wildHpMin;
+        this.wildHpMax = wildHpMax;
+        this.wildAttackMin = wildAttackMin;
+        this.wildAttackMax = wildAttackMax;
+        this.wildCoinReward = wildCoinReward;
+        this.catchChance = catchChance;
+        this.bossHp = bossHp;
+        this.bossBaseAttack = bossBaseAttack;
+        this.bossDamageIncreasePerStage = bossDamageIncreasePerStage;
+        this.stageThresholds = stageThresholds.clone();
+        this.bossCoinReward = bossCoinReward;
+    }
+
+    public int getStageCount() {
+        return stageThresholds.length;
+    }
+
+    public int getStageThreshold(int stage) {
+        return stageThresholds[stage];
+    }
+
+    public BattleRules withWildStats(int hpMin, int hpMax, int attackMin, int attackMax) {
+        return new BattleRules(hpMin, hpMax, attackMin, attackMax, wildCoinReward, catchChance,
+                bossHp, bossBaseAttack, bossDamageIncreasePerStage, stageThresholds, bossCoinReward);
+    }
+
+    public BattleRules withBoss(int hp, int baseAttack, int damageIncreasePerStage) {
+        return new BattleRules(wildHpMin, wildHpMax, wildAttackMin, wildAttackMax, wildCoinReward, catchChance,
+                hp, baseAttack, damageIncreasePerStage, stageThresholds, bossCoinReward);
+    }
+
+    public BattleRules withStageThresholds(int... thresholds) {
+        return new BattleRules(wildHpMin, wildHpMax, wildAttackMin, wildAttackMax, wildCoinReward, catchChance,
+                bossHp, bossBaseAttack, bossDamageIncreasePerStage, thresholds, bossCoinReward);
+    }
+
+    @Override
+    public String toString() {
+        return "wild HP " + wildHpMin + "-" + wildHpMax + ", ATK " + wildAttackMin + "-" + wildAttackMax
+                + "; boss HP " + bossHp + ", ATK " + bossBaseAttack + " +" + bossDamageIncreasePerStage
+                + "/stage, stages " + Arrays.toString(stageThresholds);
+    }
+}
@@ -0,0 +1,406 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Picks Mr. Foster's move with an expectimax search over a copy of the battle, on a
+ * background pool that uses every core. The search deepens one turn at a time until the
+ * difficulty's time budget runs out and keeps the move from the deepest finished pass, so
+ * the dialog gets its answer on time however big the tree is.
+ *
+ * The tree alternates the player's hit (fixed: the active monster attacks, and the next one
+ * in line comes out when it faints, as in {@link BattleEngine}), Mr. Foster's choice (max)
+ * and the SLAM hit roll (chance). Leaves are scored by how much of each side's HP is gone.
+ */
+public final class BossAI {
+
+    public enum Difficulty {
+        /** No search: always STRIKE, as the boss fought before. */
+        CLASSIC(0),
+        EASY(30),
+        NORMAL(150),
+        HARD(800);
+
+        private final long budgetMillis;
+
+        Difficulty(long budgetMillis) {
+            this.budgetMillis = budgetMillis;
+        }
+
+        /** Time the search may take per boss turn. */
+        public long getBudgetMillis() {
+            return budgetMillis;
+        }
+    }
+
+    // The player's next monsters the search knows about; deeper than this it just scores the position
+    private static final int MAX_LINE = 16;
+    // Plies near the root that are split into parallel tasks
+    private static final int PARALLEL_PLIES = 3;
+    private static final int MAX_DEPTH = 64;
+    private static final double WIN = 1_000;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        t.setName("Boss AI " + t.getPoolIndex());
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    }, null, false);
+
+    private final BattleRules rules;
+    private final long deadline;
+    private final LongAdder nodes = new LongAdder();
+    private volatile boolean aborted = false;
+    private volatile boolean horizon = false; // some line was cut off by the depth limit
+
+    private BossAI(BattleRules rules, long deadline) {
+        this.rules = rules;
+        this.deadline = deadline;
+    }
+
+    /** The move chosen and how hard the search looked for it. */
+    public static final class Choice {
+        private final BossMove move;
+        private final int depth;
+        private final long nodes;
+        private final long nanos;
+
+        Choice(BossMove move, int depth, long nodes, long nanos) {
+            this.move = move;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.nanos = nanos;
+        }
+
+        public BossMove getMove() {
+            return move;
+        }
+
+        /** Turns looked ahead in the deepest finished pass (0 without a search). */
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (depth %d, %,d nodes in %.0f ms)", move, depth, nodes, getMillis());
+        }
+    }
+
+    /**
+     * Starts choosing Mr. Foster's reply to the player's next attack. Copies the battle on
+     * the calling thread (the one that owns the engine), so the engine can be touched again
+     * as soon as this returns; the search itself runs on the pool.
+     */
+    public static CompletableFuture<Choice> chooseMove(BattleEngine engine, Difficulty difficulty) {
+        if (difficulty.budgetMillis <= 0 || engine.getKind() != BattleEngine.Kind.BOSS || engine.isOver()) {
+            return CompletableFuture.completedFuture(new Choice(BossMove.STRIKE, 0, 0, 0));
+        }
+        State root = State.of(engine);
+        long start = System.nanoTime();
+        long deadline = start + difficulty.budgetMillis * 1_000_000L;
+        return CompletableFuture.supplyAsync(() -> search(engine.getRules(), root, start, deadline), POOL);
+    }
+
+    /** Iterative deepening; each pass is a fresh search with its own node counts. */
+    static Choice search(BattleRules rules, State root, long start, long deadline) {
+        BossMove best = BossMove.STRIKE;
+        int bestDepth = 0;
+        long totalNodes = 0;
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            BossAI pass = new BossAI(rules, deadline);
+            BossMove move = pass.rootChoice(root, depth);
+            totalNodes += pass.nodes.sum();
+            if (pass.aborted) {
+                break; // Out of time; this pass is incomplete
+            }
+            best = move;
+            bestDepth = depth;
+            if (!pass.horizon) {
+                break; // Every line ended the battle: the answer is exact
+            }
+        }
+        return new Choice(best, bestDepth, totalNodes, System.nanoTime() - start);
+    }
+
+    /** The player's hit from the root, then the best of Mr. Foster's replies. */
+    private BossMove rootChoice(State root, int depth) {
+        State afterHit = root.copy();
+        afterHit.playerHit(rules);
+        if (afterHit.bossHp <= 0) {
+            return BossMove.STRIKE; // He won't get a turn
+        }
+        BossMove best = BossMove.STRIKE;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        List<MoveTask> tasks = forkMoves(afterHit, depth, 0);
+        for (MoveTask task : tasks) {
+            double value = task.join();
+            if (value > bestValue) {
+                bestValue = value;
+                best = task.move;
+            }
+        }
+        return best;
+    }
+
+    private List<MoveTask> forkMoves(State state, int depth, int ply) {
+        List<MoveTask> tasks = new ArrayList<>(BossMove.values().length);
+        for (BossMove move : BossMove.values()) {
+            if (move.isAllowed(state.focused, state.recoversUsed, state.bossHp, state.bossMaxHp)) {
+                tasks.add(new MoveTask(state, move, depth, ply));
+            }
+        }
+        // Fork all but the first and run that one here
+        for (int i = 1; i < tasks.size(); i++) {
+            tasks.get(i).fork();
+        }
+        tasks.get(0).invoke();
+        return tasks;
+    }
+
+    /** Value for the boss of a position where the player is about to attack. */
+    private double turnValue(State state, int depth, int ply) {
+        nodes.increment();
+        if (state.playerLost) {
+            return WIN + depth; // Sooner is better
+        }
+        if (depth == 0 || state.lineExhausted) {
+            if (!horizon) {
+                horizon = true; // Checked first so the cores don't fight over the cache line
+            }
+            return state.evaluate();
+        }
+        if (aborted || System.nanoTime() >= deadline) {
+            aborted = true;
+            return 0;
+        }
+        State afterHit = state.copy();
+        afterHit.playerHit(rules);
+        if (afterHit.bossHp <= 0) {
+            return -WIN - depth;
+        }
+        if (ply < PARALLEL_PLIES) {
+            double best = Double.NEGATIVE_INFINITY;
+            for (MoveTask task : forkMoves(afterHit, depth, ply)) {
+                best = Math.max(best, task.join());
+            }
+            return best;
+        }
+        double best = Double.NEGATIVE_INFINITY;
+        for (BossMove move : BossMove.values()) {
+            if (move.isAllowed(afterHit.focused, afterHit.recoversUsed, afterHit.bossHp, afterHit.bossMaxHp)) {
+                best = Math.max(best, moveValue(afterHit, move, depth, ply));
+            }
+        }
+        return best;
+    }
+
+    /** Expected value of Mr. Foster making {@code move} in a position after the player's hit. */
+    private double moveValue(State state, BossMove move, int depth, int ply) {
+        if (move == BossMove.SLAM) {
+            State hit = state.copy();
+            hit.bossMove(move, true);
+            State miss = state.copy();
+            miss.bossMove(move, false);
+            return BossMove.SLAM_HIT_CHANCE * turnValue(hit, depth - 1, ply + 1)
+                    + (1 - BossMove.SLAM_HIT_CHANCE) * turnValue(miss, depth - 1, ply + 1);
+        }
+        State next = state.copy();
+        next.bossMove(move, true);
+        return turnValue(next, depth - 1, ply + 1);
+    }
+
+    private final class MoveTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        final State state;
+        final BossMove move;
+        final int depth;
+        final int ply;
+
+        MoveTask(State state, BossMove move, int depth, int ply) {
+            this.state = state;
+            this.move = move;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected Double compute() {
+            return moveValue(state, move, depth, ply);
+        }
+    }
+
+    /**
+     * The battle as plain numbers. The player's side is the active monster followed by the
+     * next {@link #MAX_LINE} that would be sent out, in the engine's order; stats that never
+     * change during a battle are shared between copies.
+     */
+    static final class State {
+        final int[] attack;
+        final Element[] element;
+        final int[] maxHp;
+        final boolean truncated; // more monsters wait behind the line
+        final Element bossElement;
+        final int bossMaxHp;
+        final double lineMaxHp;
+        final double rootLineHp;
+        final int rootBossHp;
+
+        int[] hp;
+        int active;
+        boolean playerLost;
+        boolean lineExhausted;
+        int bossHp;
+        int bossAttack;
+        int stage;
+        boolean focused;
+        int recoversUsed;
+
+        private State(int[] attack, Element[] element, int[] maxHp, int[] hp, boolean truncated,
+                      Monster boss, BattleEngine engine) {
+            this.attack = attack;
+            this.element = element;
+            this.maxHp = maxHp;
+            this.hp = hp;
+            this.truncated = truncated;
+            this.bossElement = boss.getElement();
+            this.bossMaxHp = boss.getMaxHealth();
+            this.bossHp = boss.getHp();
+            this.bossAttack = boss.getAttack();
+            this.stage = engine.getStage();
+            this.focused = engine.isBossFocused();
+            this.recoversUsed = engine.getBossRecoversUsed();
+            long max = 0;
+            long now = 0;
+            for (int i = 0; i < hp.length; i++) {
+                max += maxHp[i];
+                now += hp[i];
+            }
+            this.lineMaxHp = Math.max(1, max);
+            this.rootLineHp = now;
+            this.rootBossHp = bossHp;
+        }
+
+        private State(State source) {
+            attack = source.attack;
+            element = source.element;
+            maxHp = source.maxHp;
+            truncated = source.truncated;
+            bossElement = source.bossElement;
+            bossMaxHp = source.bossMaxHp;
+            lineMaxHp = source.lineMaxHp;
+            rootLineHp = source.rootLineHp;
+            rootBossHp = source.rootBossHp;
+            hp = source.hp.clone();
+            active = source.active;
+            playerLost = source.playerLost;
+            lineExhausted = source.lineExhausted;
+            bossHp = source.bossHp;
+            bossAttack = source.bossAttack;
+            stage = source.stage;
+            focused = source.focused;
+            recoversUsed = source.recoversUsed;
+        }
+
+        static State of(BattleEngine engine) {
+            List<Monster> party = engine.getParty();
+            Monster active = engine.getActive();
+            // Line: the active monster, then every other unfainted one in party order
+            Monster[] line = new Monster[MAX_LINE + 1];
+            int count = 0;
+            line[count++] = active;
+            boolean truncated = false;
+            for (Monster m : party) {
+                if (m.isFainted() || m.equals(active)) continue;
+                if (count == line.length) {
+                    truncated = true;
+                    break;
+                }
+                line[count++] = m;
+            }
+            int[] attack = new int[count];
+            Element[] element = new Element[count];
+            int[] maxHp = new int[count];
+            int[] hp = new int[count];
+            for (int i = 0; i < count; i++) {
+                attack[i] = line[i].getAttack();
+                element[i] = line[i].getElement();
+                maxHp[i] = line[i].getMaxHealth();
+                hp[i] = line[i].getHp();
+            }
+            return new State(attack, element, maxHp, hp, truncated, engine.getEnemy(), engine);
+        }
+
+        State copy() {
+            return new State(this);
+        }
+
+        /** The active monster attacks, as in {@link BattleEngine#performTurn(BossMove)}. */
+        void playerHit(BattleRules rules) {
+            bossHp = Math.max(0, bossHp - Element.damage(attack[active], element[active], bossElement));
+            int next = BattleEngine.nextStage(stage, bossHp, bossMaxHp, rules);
+            if (next == stage + 1) {
+                bossAttack += rules.bossDamageIncreasePerStage;
+            }
+            stage = next;
+        }
+
+        void bossMove(BossMove move, boolean hits) {
+            switch (move) {
+                case FOCUS:
+                    focused = true;
+                    return;
+                case RECOVER:
+                    recoversUsed++;
+                    bossHp = Math.min(bossMaxHp, bossHp + BossMove.recoverAmount(bossMaxHp));
+                    return;
+                default:
+                    break;
+            }
+            int base = move.baseDamage(bossAttack, focused);
+            focused = false;
+            if (!hits) return;
+            hp[active] = Math.max(0, hp[active] - Element.damage(base, bossElement, element[active]));
+            if (hp[active] == 0) {
+                int next = -1;
+                for (int i = 0; i < hp.length; i++) {
+                    if (hp[i] > 0) {
+                        next = i;
+                        break;
+                    }
+                }
+                if (next >= 0) {
+                    active = next;
+                } else if (truncated) {
+                    lineExhausted = true; // The rest are beyond what the search copied
+                } else {
+                    playerLost = true;
+                }
+            }
+        }
+
+        /** The share of the player's HP gone since the root minus the share of his; in [-1, 1]. */
+        double evaluate() {
+            long lineHp = 0;
+            for (int value : hp) {
+                lineHp += value;
+            }
+            double playerLoss = (rootLineHp - lineHp) / lineMaxHp;
+            double bossLoss = (double) (rootBossHp - bossHp) / bossMaxHp;
+            return playerLoss - bossLoss;
+        }
+    }
+}
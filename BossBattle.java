@@ -1,16 +1,18 @@
 import java.awt.*;
-import java.io.IOException;
 import java.util.List;
-import javax.imageio.ImageIO;
 import javax.swing.*;
 
 public class BossBattle extends JDialog {
 
     private Game game;
     private List<Monster> playerMonsters;
+    // The rules (stages, damage, switching) live in the engine; this dialog only shows what it reports
+    private final BattleEngine engine;
     private Monster bossMonster;
-    private Monster activePlayerMonster;
     private boolean isBattleOver = false;
+    private boolean thinking = false; // the boss AI is choosing his reply; see performTurn
+    private GameEvent.BattleEnded.Outcome outcome = GameEvent.BattleEnded.Outcome.FLED;
+    private boolean endPublished = false;
 
     // UI Components for Boss
     private JLabel bossImageLabel;
@@ -20,16 +22,13 @@ public class BossBattle extends JDialog {
 
     // UI Components for Player
     private JPanel playerMonstersPanel;
-    private JTextArea messageArea;
+    private final BattleLog log = new BattleLog(BattleLog.DEFAULT_CAPACITY);
     private JButton attackButton;
     private JButton runButton;
     private JButton closeButton;
 
     // Boss Stage Data
     private int currentBossStage = 0;
-    // HP % thresholds for stages (e.g., 80% HP remaining for stage 1)
-    // The last threshold (0) means the boss is defeated
-    private final int[] stageThresholds = { 80, 60, 40, 20, 0 };
     private final String[] bossSpritePaths = {
         "/Game Items/Foster_0.png", // Stage 0
         "/Game Items/Foster_1.png", // Stage 1
@@ -37,27 +36,28 @@ public class BossBattle extends JDialog {
         "/Game Items/Foster_3.png", // Stage 3
         "/Game Items/Foster_4.png"  // Stage 4 (final)
     };
-    private int baseBossAttack = 10; // Initial boss attack
-    // ⭐ Removed bossHealAmount and bossDamageIncreasePerStage for simplification ⭐
-    private int bossDamageIncreasePerStage = 10; // Amount boss damage increases per stage
 
     public BossBattle(JFrame owner, Game game, List<Monster> playerMonsters) {
         super(owner, "💥 Boss Battle: Mr. Foster!", true);
         this.game = game;
         this.playerMonsters = playerMonsters;
 
-        // Mr. Foster's initial stats.
-        // Base attack will be modified by the 50% reduction during his turn.
-        this.bossMonster = new Monster("Mr. Foster", 200, baseBossAttack);
+        // Mr. Foster's stats and the first unfainted monster come from the engine
+        this.engine = BattleEngine.boss(playerMonsters, game.getRandom().stream(GameRandom.BOSS_BATTLES));
+        this.bossMonster = engine.getEnemy();
 
-        this.activePlayerMonster = getFirstAvailablePlayerMonster();
-        if (activePlayerMonster == null) {
+        if (engine.getActive() == null) {
             JOptionPane.showMessageDialog(this, "All your monsters have fainted! You cannot fight Mr. Foster.", "No Monsters Available", JOptionPane.ERROR_MESSAGE);
             isBattleOver = true;
             dispose();
             return;
         }
 
+        // Decode the later stages in the background so stage changes swap instantly
+        for (String path : bossSpritePaths) {
+            AssetLoader.shared().load(path, 128, 128);
+        }
+
         setupUI();
         updateBossDisplay();
         updatePlayerMonstersDisplay();
@@ -67,16 +67,20 @@ public class BossBattle extends JDialog {
         setSize(800, 600);
         setLocationRelativeTo(owner);
         setResizable(false);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setVisible(true);
     }
 
-    private Monster getFirstAvailablePlayerMonster() {
-        for (Monster m : playerMonsters) {
-            if (!m.isFainted()) {
-                return m;
-            }
+    /** Tells the game the fight is over; runs once, however the dialog was closed. */
+    @Override
+    public void dispose() {
+        super.dispose();
+        isBattleOver = true; // A turn the boss AI is still choosing must not play on a closed dialog
+        if (!endPublished) {
+            endPublished = true;
+            game.recordBattleAction(BattleRecording.Action.END, 0, 0);
+            game.getEvents().publishBattleEnded(true, outcome);
         }
-        return null;
     }
 
     private void setupUI() {
@@ -110,14 +114,7 @@ public class BossBattle extends JDialog {
         add(bossInfoPanel, BorderLayout.NORTH);
 
         // --- Center Panel: Battle Log ---
-        messageArea = new JTextArea(8, 40);
-        messageArea.setEditable(false);
-        messageArea.setFont(new Font("Monospaced", Font.PLAIN, 18));
-        messageArea.setLineWrap(true);
-        messageArea.setWrapStyleWord(true);
-        JScrollPane scrollPane = new JScrollPane(messageArea);
-        scrollPane.setBorder(BorderFactory.createTitledBorder("Battle Log"));
-        add(scrollPane, BorderLayout.CENTER);
+        add(log.createView("Battle Log", new Font("Monospaced", Font.PLAIN, 18), 8), BorderLayout.CENTER);
 
         // --- South Panel: Player Monsters & Actions ---
         JPanel southPanel = new JPanel(new BorderLayout(10, 10));
@@ -132,15 +129,18 @@ public class BossBattle extends JDialog {
         attackButton = new JButton("Attack!");
         runButton = new JButton("Run Away");
         closeButton = new JButton("Close Battle");
+        JButton exportButton = new JButton("Export Log");
 
         Font buttonFont = new Font("Arial", Font.BOLD, 24);
         attackButton.setFont(buttonFont);
         runButton.setFont(buttonFont);
         closeButton.setFont(buttonFont);
+        exportButton.setFont(buttonFont);
 
         actionButtonPanel.add(attackButton);
         actionButtonPanel.add(runButton);
         actionButtonPanel.add(closeButton);
+        actionButtonPanel.add(exportButton);
         southPanel.add(actionButtonPanel, BorderLayout.SOUTH);
 
         add(southPanel, BorderLayout.SOUTH);
@@ -148,10 +148,14 @@ public class BossBattle extends JDialog {
         // Action Listeners
         attackButton.addActionListener(e -> performTurn());
         runButton.addActionListener(e -> {
+            game.recordBattleAction(BattleRecording.Action.RUN, 0, 0);
+            engine.flee();
             updateStatus("You fled the battle! Mr. Foster remains undefeated.");
             endBattle(false);
+            outcome = GameEvent.BattleEnded.Outcome.FLED;
         });
         closeButton.addActionListener(e -> dispose());
+        exportButton.addActionListener(e -> log.exportWithChooser(this));
         closeButton.setVisible(false);
     }
 
@@ -162,9 +166,12 @@ public class BossBattle extends JDialog {
     }
 
     private void updateStatus(String message) {
+        updateStatus(BattleLog.Kind.INFO, message);
+    }
+
+    private void updateStatus(BattleLog.Kind kind, String message) {
         if (!message.isEmpty()) {
-            messageArea.append(message + "\n");
-            messageArea.setCaretPosition(messageArea.getDocument().getLength());
+            log.add(kind, message);
         }
         updateBossDisplay();
         updatePlayerMonstersDisplay();
@@ -173,16 +180,10 @@ public class BossBattle extends JDialog {
     private void updateBossDisplay() {
         bossNameLabel.setText(bossMonster.getName() + " (Stage " + (currentBossStage + 1) + ")");
         bossHpLabel.setText("HP: " + bossMonster.getHp() + "/" + bossMonster.getMaxHealth());
-        animateBar(bossHpBar, bossMonster.getHp());
-
-        try {
-            ImageIcon icon = new ImageIcon(ImageIO.read(getClass().getResource(bossSpritePaths[currentBossStage])));
-            Image scaled = icon.getImage().getScaledInstance(128, 128, Image.SCALE_SMOOTH);
-            bossImageLabel.setIcon(new ImageIcon(scaled));
-        } catch (IOException e) {
-            System.err.println("Error loading boss image for stage " + currentBossStage + ": " + e.getMessage());
-            bossImageLabel.setText("[IMG ERR]");
-        }
+        Tweens.shared().animateBar(bossHpBar, bossMonster.getHp());
+
+        // Placeholder until the stage sprite decodes; load failures are logged by SpriteCache
+        AssetLoader.shared().loadInto(bossImageLabel, bossSpritePaths[currentBossStage], 128, 128, "[IMG ERR]");
     }
 
     private void updatePlayerMonstersDisplay() {
@@ -190,6 +191,7 @@ public class BossBattle extends JDialog {
 
         ButtonGroup group = new ButtonGroup();
         boolean anyMonsterAvailable = false;
+        Monster active = engine.getActive();
 
         for (Monster m : playerMonsters) {
             JRadioButton monsterButton = new JRadioButton(m.getName() + " HP: " + m.getHp() + "/" + m.getMaxHealth());
@@ -201,25 +203,23 @@ public class BossBattle extends JDialog {
                 monsterButton.setForeground(Color.GRAY);
             } else {
                 anyMonsterAvailable = true;
-                monsterButton.addActionListener(e -> activePlayerMonster = m);
+                monsterButton.setEnabled(!thinking); // The search assumed the current attacker
+                monsterButton.addActionListener(e -> {
+                    game.recordBattleAction(BattleRecording.Action.SWITCH, m.getRosterIndex(), 0);
+                    engine.setActive(m);
+                });
             }
 
             group.add(monsterButton);
             playerMonstersPanel.add(monsterButton);
 
-            if (m == activePlayerMonster && !m.isFainted()) {
+            if (m.equals(active) && !m.isFainted()) {
                 monsterButton.setSelected(true);
-            } else if (m == activePlayerMonster && m.isFainted()) {
-                activePlayerMonster = getNextAvailablePlayerMonster();
-                if (activePlayerMonster != null) {
-                    updatePlayerMonstersDisplay();
-                    return;
-                }
             }
         }
 
         if (!anyMonsterAvailable && !isBattleOver) {
-            updateStatus("All your monsters have fainted!");
+            updateStatus(BattleLog.Kind.RESULT, "All your monsters have fainted!");
             endBattle(false);
         }
         playerMonstersPanel.revalidate();
@@ -227,109 +227,108 @@ public class BossBattle extends JDialog {
     }
 
 
-    private void animateBar(JProgressBar bar, int targetValue) {
-        Timer timer = new Timer(10, null);
-        timer.addActionListener(e -> {
-            int current = bar.getValue();
-            if (current < targetValue) {
-                bar.setValue(Math.min(current + 1, targetValue));
-            } else if (current > targetValue) {
-                bar.setValue(Math.max(current - 1, targetValue));
-            } else {
-                ((Timer) e.getSource()).stop();
-            }
-        });
-        timer.start();
-    }
-
+    /**
+     * Asks the boss AI for Mr. Foster's reply on the worker pool, then plays the turn on the
+     * EDT once it has answered. The dialog stays responsive (Run Away still works) meanwhile.
+     */
     private void performTurn() {
-        if (isBattleOver || activePlayerMonster == null || activePlayerMonster.isFainted()) {
-            if (activePlayerMonster == null || activePlayerMonster.isFainted()) {
+        Monster active = engine.getActive();
+        if (isBattleOver || thinking || active == null || active.isFainted()) {
+            if (active == null || active.isFainted()) {
                 updateStatus("You must select an unfainted monster to attack!");
             }
             return;
         }
 
-        // --- Player's Turn ---
-        updateStatus("👉 " + activePlayerMonster.getName() + " attacks Mr. Foster!");
-        bossMonster.takeDamage(activePlayerMonster.getAttack());
-        updateStatus("You dealt " + activePlayerMonster.getAttack() + " damage to Mr. Foster!");
-        updateBossDisplay();
+        thinking = true;
+        attackButton.setEnabled(false);
+        attackButton.setText("Mr. Foster is thinking...");
+        updatePlayerMonstersDisplay();
+        BossAI.chooseMove(engine, game.getBossDifficulty())
+                .whenComplete((choice, error) -> SwingUtilities.invokeLater(() -> finishTurn(choice, error)));
+    }
+
+    private void finishTurn(BossAI.Choice choice, Throwable error) {
+        thinking = false;
+        attackButton.setText("Attack!");
+        if (isBattleOver || !isDisplayable()) return; // Fled (or closed) while he was thinking
+        attackButton.setEnabled(true);
+        BossMove move = BossMove.STRIKE;
+        if (error != null) {
+            System.err.println("Boss AI failed, falling back to STRIKE: " + error);
+        } else {
+            move = choice.getMove();
+        }
 
-        // Check for boss stage transition or defeat
-        checkBossStage();
+        game.recordBattleAction(BattleRecording.Action.BOSS_TURN, move.ordinal(), 0);
+        BattleEngine.TurnResult turn = engine.performTurn(move);
 
-        if (bossMonster.isFainted()) {
-            updateStatus("✅ Mr. Foster has been defeated!");
+        // --- Player's Turn ---
+        updateStatus(BattleLog.Kind.PLAYER_ATTACK, "👉 " + turn.getAttacker().getName() + " attacks Mr. Foster!");
+        updateStatus(BattleLog.Kind.PLAYER_ATTACK, "You dealt " + turn.getPlayerDamage() + " damage to Mr. Foster!");
+
+        // Boss stage transition
+        if (turn.isStageChanged()) {
+            currentBossStage = turn.getStageAfter();
+            game.getEvents().publishStageChanged(currentBossStage, turn.getEnemyAttackAfter());
+            updateStatus(BattleLog.Kind.STAGE, "Mr. Foster powers up! His attack increased to " + turn.getEnemyAttackAfter() + "!");
+            updateStatus(BattleLog.Kind.STAGE, "Mr. Foster is now in Stage " + (currentBossStage + 1) + "!");
+        }
+
+        if (turn.isEnemyDefeated()) {
+            updateStatus(BattleLog.Kind.RESULT, "✅ Mr. Foster has been defeated!");
             endBattle(true);
             return;
         }
 
         // --- Mr. Foster's Turn ---
-        updateStatus("⚡ Mr. Foster attacks " + activePlayerMonster.getName() + "!");
-        // ⭐ Reduce Mr. Foster's damage by 50% ⭐
-        int bossDamage = bossMonster.getAttack();
-        int reducedBossDamage = Math.max(1, (int) (bossDamage * 0.5)); // Ensure damage is at least 1
-        activePlayerMonster.takeDamage(reducedBossDamage);
-        updateStatus("You took " + reducedBossDamage + " damage from Mr. Foster!"); // Report reduced damage
-        updatePlayerMonstersDisplay();
-
-        if (activePlayerMonster.isFainted()) {
-            updateStatus("💀 " + activePlayerMonster.getName() + " fainted!");
-            activePlayerMonster = getNextAvailablePlayerMonster();
-            if (activePlayerMonster != null) {
-                updateStatus("Go! " + activePlayerMonster.getName() + "!");
-                updatePlayerMonstersDisplay();
-            } else {
-                updateStatus("All your monsters have fainted! You blacked out against Mr. Foster.");
-                endBattle(false);
-            }
-        }
-    }
-
-    private void checkBossStage() {
-        int currentBossHpPercent = (int) ((double) bossMonster.getHp() / bossMonster.getMaxHealth() * 100);
-
-        for (int i = currentBossStage; i < stageThresholds.length; i++) {
-            if (currentBossHpPercent <= stageThresholds[i] && i < stageThresholds.length -1) {
-                currentBossStage++;
-                // ⭐ Removed boss healing here ⭐
-                // Increase boss damage
-                bossMonster.setAttack(bossMonster.getAttack() + bossDamageIncreasePerStage);
-                updateStatus("Mr. Foster powers up! His attack increased to " + bossMonster.getAttack() + "!"); // Message updated
-                updateStatus("Mr. Foster is now in Stage " + (currentBossStage + 1) + "!");
-                updateBossDisplay();
+        switch (turn.getBossMove()) {
+            case FOCUS:
+                updateStatus(BattleLog.Kind.ENEMY_ATTACK, "🧘 Mr. Foster focuses... his next hit will be stronger!");
+                return;
+            case RECOVER:
+                updateStatus(BattleLog.Kind.ENEMY_ATTACK, "💚 Mr. Foster recovered " + turn.getEnemyHealed() + " HP!");
+                return;
+            case SLAM:
+                updateStatus(BattleLog.Kind.ENEMY_ATTACK, "💥 Mr. Foster slams " + turn.getTarget().getName() + "!");
+                break;
+            default:
+                updateStatus(BattleLog.Kind.ENEMY_ATTACK, "⚡ Mr. Foster attacks " + turn.getTarget().getName() + "!");
                 break;
-            }
-            if (currentBossHpPercent <= stageThresholds[stageThresholds.length - 1]) {
-                 currentBossStage = stageThresholds.length - 1;
-                 break;
-            }
         }
-    }
+        if (turn.isEnemyMissed()) {
+            updateStatus(BattleLog.Kind.ENEMY_ATTACK, "...but he missed!");
+            return;
+        }
+        updateStatus(BattleLog.Kind.ENEMY_ATTACK, "You took " + turn.getEnemyDamage() + " damage from Mr. Foster!");
+        game.monsterHpChanged(turn.getTarget());
 
-    private Monster getNextAvailablePlayerMonster() {
-        for (Monster m : playerMonsters) {
-            if (!m.isFainted() && m != activePlayerMonster) {
-                return m;
+        if (turn.isPlayerFainted()) {
+            updateStatus(BattleLog.Kind.FAINT, "💀 " + turn.getTarget().getName() + " fainted!");
+            if (turn.getSwitchedIn() != null) {
+                updateStatus(BattleLog.Kind.SWITCH, "Go! " + turn.getSwitchedIn().getName() + "!");
+            } else {
+                updateStatus(BattleLog.Kind.RESULT, "All your monsters have fainted! You blacked out against Mr. Foster.");
+                endBattle(false);
             }
         }
-        return null;
     }
 
     private void endBattle(boolean playerWon) {
+        if (isBattleOver) return; // the roster display may already have ended it
         isBattleOver = true;
+        outcome = playerWon ? GameEvent.BattleEnded.Outcome.WON : GameEvent.BattleEnded.Outcome.LOST;
         attackButton.setEnabled(false);
         runButton.setEnabled(false);
         closeButton.setVisible(true);
 
         if (playerWon) {
-            updateStatus("\n🎉 CONGRATULATIONS! You defeated Mr. Foster!");
-            game.addCoins(999999);
-            updateStatus("💰 You received 999,999 coins!");
+            updateStatus(BattleLog.Kind.RESULT, "🎉 CONGRATULATIONS! You defeated Mr. Foster!");
+            game.addCoins(engine.getRules().bossCoinReward);
+            updateStatus(BattleLog.Kind.REWARD, "💰 You received " + String.format("%,d", engine.getRules().bossCoinReward) + " coins!");
             JOptionPane.showMessageDialog(this, "You have defeated Mr. Foster!\nVictory is yours, along with a massive reward!", "Victory!", JOptionPane.INFORMATION_MESSAGE);
         } else {
-            updateStatus("\nGame Over! Mr. Foster remains dominant.");
+            updateStatus(BattleLog.Kind.RESULT, "Game Over! Mr. Foster remains dominant.");
             JOptionPane.showMessageDialog(this, "Your monsters have been defeated. Mr. Foster has won this time.", "Defeat!", JOptionPane.ERROR_MESSAGE);
         }
     }
@@ -0,0 +1,55 @@
+/**
+ * What Mr. Foster can do on his turn. {@link BattleEngine} applies them and {@link BossAI}
+ * searches over them; both go through the static helpers here so they never disagree.
+ */
+public enum BossMove {
+    /** Half his attack, never misses. All he did before he learned the others. */
+    STRIKE,
+    /** His full attack, but only lands {@link #SLAM_HIT_CHANCE} of the time. */
+    SLAM,
+    /** No damage this turn; his next STRIKE or SLAM deals half again as much. */
+    FOCUS,
+    /** Heals a twentieth of his max HP, at most {@link #MAX_RECOVERS} times a battle. */
+    RECOVER;
+
+    public static final double SLAM_HIT_CHANCE = 0.5; // same damage as STRIKE on average, but all or nothing
+    public static final int MAX_RECOVERS = 2;
+
+    private static final BossMove[] MOVES = values();
+
+    public static BossMove byId(int id) {
+        return MOVES[id];
+    }
+
+    /** Whether the move is allowed in this state; FOCUS can't be stacked and RECOVER needs damage to heal. */
+    public boolean isAllowed(boolean focused, int recoversUsed, int hp, int maxHp) {
+        switch (this) {
+            case FOCUS:
+                return !focused;
+            case RECOVER:
+                return recoversUsed < MAX_RECOVERS && hp < maxHp;
+            default:
+                return true;
+        }
+    }
+
+    /** Damage before elements for STRIKE and SLAM; 0 for the others. */
+    public int baseDamage(int attack, boolean focused) {
+        int damage;
+        switch (this) {
+            case STRIKE:
+                damage = Math.max(1, (int) (attack * 0.5)); // Mr. Foster hits at 50%, at least 1
+                break;
+            case SLAM:
+                damage = attack;
+                break;
+            default:
+                return 0;
+        }
+        return focused ? damage * 3 / 2 : damage;
+    }
+
+    public static int recoverAmount(int maxHp) {
+        return Math.max(1, maxHp / 20);
+    }
+}
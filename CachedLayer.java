@@ -0,0 +1,139 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * A pre-rendered layer for things that don't change between frames (the terrain).
+ * The painter runs once per size/scale change into a VolatileImage (so the blit can
+ * stay in video memory), falling back to a BufferedImage when accelerated images
+ * aren't available. Each frame is then a single drawImage.
+ */
+public final class CachedLayer {
+
+    /** Paints the layer's content in unscaled game coordinates. */
+    public interface Painter {
+        void paint(Graphics2D g);
+    }
+
+    private final Painter painter;
+    private VolatileImage volatileImage;
+    private BufferedImage bufferedImage;
+    private boolean useVolatile = true;
+    private volatile boolean dirty = true;
+    private int width;
+    private int height;
+    private double scale;
+    private long rebuilds = 0;
+
+    public CachedLayer(Painter painter) {
+        this.painter = painter;
+    }
+
+    /** Forces a repaint of the cached content on the next draw. */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    public long getRebuilds() {
+        return rebuilds;
+    }
+
+    /**
+     * Draws the layer with its top-left corner at (x, y) in device space.
+     * @param width Layer width in device pixels.
+     * @param height Layer height in device pixels.
+     * @param scale Scale applied to the painter's game coordinates.
+     */
+    public synchronized void draw(Graphics2D g, int x, int y, int width, int height, double scale) {
+        if (width <= 0 || height <= 0) return;
+        if (width != this.width || height != this.height || scale != this.scale) {
+            this.width = width;
+            this.height = height;
+            this.scale = scale;
+            dirty = true;
+        }
+
+        GraphicsConfiguration gc = g.getDeviceConfiguration();
+        if (useVolatile && gc != null) {
+            drawVolatile(g, gc, x, y);
+        } else {
+            drawBuffered(g, x, y);
+        }
+    }
+
+    private void drawVolatile(Graphics2D g, GraphicsConfiguration gc, int x, int y) {
+        do {
+            if (volatileImage == null || volatileImage.getWidth() != width || volatileImage.getHeight() != height) {
+                if (!createVolatile(gc)) {
+                    drawBuffered(g, x, y);
+                    return;
+                }
+            }
+            int status = volatileImage.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (!createVolatile(gc)) {
+                    drawBuffered(g, x, y);
+                    return;
+                }
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                dirty = true; // surface was lost; contents are garbage
+            }
+            if (dirty) {
+                dirty = false;
+                render(volatileImage.createGraphics());
+            }
+            g.drawImage(volatileImage, x, y, null);
+        } while (volatileImage.contentsLost());
+    }
+
+    private boolean createVolatile(GraphicsConfiguration gc) {
+        if (volatileImage != null) {
+            volatileImage.flush();
+        }
+        try {
+            volatileImage = gc.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+        } catch (RuntimeException e) {
+            volatileImage = null;
+        }
+        if (volatileImage == null) {
+            useVolatile = false;
+            return false;
+        }
+        dirty = true;
+        return true;
+    }
+
+    private void drawBuffered(Graphics2D g, int x, int y) {
+        if (bufferedImage == null || bufferedImage.getWidth() != width || bufferedImage.getHeight() != height) {
+            bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            dirty = true;
+        }
+        if (dirty) {
+            dirty = false;
+            render(bufferedImage.createGraphics());
+        }
+        g.drawImage(bufferedImage, x, y, null);
+    }
+
+    private void render(Graphics2D g) {
+        try {
+            g.scale(scale, scale);
+            painter.paint(g);
+        } finally {
+            g.dispose();
+        }
+        rebuilds++;
+    }
+
+    /** Releases any video memory held by the layer. */
+    public synchronized void flush() {
+        if (volatileImage != null) {
+            volatileImage.flush();
+            volatileImage = null;
+        }
+        bufferedImage = null;
+        dirty = true;
+    }
+}
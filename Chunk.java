@@ -0,0 +1,206 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * One square piece of the overworld: its roads, its walkable-tile bitmap and the encounter
+ * zone of every tile. Chunks are generated purely from (world seed, chunk x, chunk y), so
+ * a chunk can always be thrown away and rebuilt identically later.
+ */
+public final class Chunk {
+
+    public static final int TILE_SIZE = 32;
+    public static final int TILES = 16;
+    public static final int SIZE = TILES * TILE_SIZE; // chunk edge in pixels
+    public static final int ROAD_WIDTH = 48; // approx 1.5x avatar width (32)
+
+    // Only loaded once something paints, so headless runs never start up AWT
+    private static final class Palette {
+        static final Color GRASS = new Color(34, 139, 34); // forest green grass
+        static final Color ROAD = new Color(139, 69, 19); // brown dirt color
+    }
+
+    private final int chunkX;
+    private final int chunkY;
+    private final CollisionMap tiles = new CollisionMap(TILES, TILES, TILE_SIZE);
+    // Road rectangles in chunk-local pixels, packed as x, y, width, height
+    private final int[] roads;
+    // EncounterZone id per tile, row-major
+    private final byte[] zones;
+    private CachedLayer layer; // created the first time the chunk is drawn
+
+    private Chunk(int chunkX, int chunkY, int[] roads, byte[] zones) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.roads = roads;
+        this.zones = zones;
+        rebuildTiles();
+    }
+
+    /**
+     * Builds the chunk at (chunkX, chunkY) for a world seed.
+     * Every chunk in a "road column" gets a north-south road through its middle, and every
+     * chunk in a "road row" an east-west one, so roads always line up across chunk borders.
+     * Dead-end branches off those roads are rolled per chunk.
+     * Main roads are {@link EncounterZone#ROAD} (or, in some chunks, {@link EncounterZone#FOREST_PATH}),
+     * branches are {@link EncounterZone#DIRT_TRACK} and the crossroads at the origin is
+     * {@link EncounterZone#TOWN}.
+     */
+    public static Chunk generate(long seed, int chunkX, int chunkY) {
+        SplittableRandom random = new SplittableRandom(hash(seed, chunkX, chunkY));
+        boolean vertical = hasVerticalRoad(seed, chunkX);
+        boolean horizontal = hasHorizontalRoad(seed, chunkY);
+        int mid = SIZE / 2 - ROAD_WIDTH / 2;
+        // Its own hash so the roads roll the same as before zones existed
+        EncounterZone mainZone = (hash(seed ^ 0x5EED_2013L, chunkX, chunkY) & 3) == 0
+                ? EncounterZone.FOREST_PATH : EncounterZone.ROAD;
+
+        int[] roads = new int[4 * 8];
+        int count = 0;
+        if (vertical) {
+            count = addRoad(roads, count, mid, 0, ROAD_WIDTH, SIZE);
+            // Branches to the left/right, stopping a tile short of the chunk edge
+            int branches = random.nextInt(3);
+            for (int i = 0; i < branches; i++) {
+                int branchY = (1 + random.nextInt(TILES - 3)) * TILE_SIZE;
+                int length = (2 + random.nextInt(4)) * TILE_SIZE;
+                if (random.nextBoolean()) {
+                    count = addRoad(roads, count, Math.max(TILE_SIZE, mid - length), branchY,
+                            Math.min(length, mid - TILE_SIZE), ROAD_WIDTH);
+                } else {
+                    count = addRoad(roads, count, mid + ROAD_WIDTH, branchY,
+                            Math.min(length, SIZE - TILE_SIZE - mid - ROAD_WIDTH), ROAD_WIDTH);
+                }
+            }
+        }
+        if (horizontal) {
+            count = addRoad(roads, count, 0, mid, SIZE, ROAD_WIDTH);
+            int branches = random.nextInt(3);
+            for (int i = 0; i < branches; i++) {
+                int branchX = (1 + random.nextInt(TILES - 3)) * TILE_SIZE;
+                int length = (2 + random.nextInt(4)) * TILE_SIZE;
+                if (random.nextBoolean()) {
+                    count = addRoad(roads, count, branchX, Math.max(TILE_SIZE, mid - length),
+                            ROAD_WIDTH, Math.min(length, mid - TILE_SIZE));
+                } else {
+                    count = addRoad(roads, count, branchX, mid + ROAD_WIDTH,
+                            ROAD_WIDTH, Math.min(length, SIZE - TILE_SIZE - mid - ROAD_WIDTH));
+                }
+            }
+        }
+
+        byte[] zones = new byte[TILES * TILES];
+        Arrays.fill(zones, mainZone.id());
+        for (int i = 0; i < count * 4; i += 4) {
+            fillZone(zones, roads[i], roads[i + 1], roads[i + 2], roads[i + 3], EncounterZone.DIRT_TRACK);
+        }
+        // Main roads win where a branch joins them
+        if (vertical) {
+            fillZone(zones, mid, 0, ROAD_WIDTH, SIZE, mainZone);
+        }
+        if (horizontal) {
+            fillZone(zones, 0, mid, SIZE, ROAD_WIDTH, mainZone);
+        }
+        if (chunkX == 0 && chunkY == 0) {
+            fillZone(zones, mid - 2 * TILE_SIZE, mid - 2 * TILE_SIZE,
+                    ROAD_WIDTH + 4 * TILE_SIZE, ROAD_WIDTH + 4 * TILE_SIZE, EncounterZone.TOWN);
+        }
+        return new Chunk(chunkX, chunkY, Arrays.copyOf(roads, count * 4), zones);
+    }
+
+    /** Sets the zone of every tile the rectangle (chunk-local pixels) touches. */
+    private static void fillZone(byte[] zones, int x, int y, int width, int height, EncounterZone zone) {
+        for (int ty = y / TILE_SIZE; ty <= (y + height - 1) / TILE_SIZE; ty++) {
+            for (int tx = x / TILE_SIZE; tx <= (x + width - 1) / TILE_SIZE; tx++) {
+                zones[ty * TILES + tx] = zone.id();
+            }
+        }
+    }
+
+    private static int addRoad(int[] roads, int count, int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) return count;
+        int i = count * 4;
+        roads[i] = x;
+        roads[i + 1] = y;
+        roads[i + 2] = width;
+        roads[i + 3] = height;
+        return count + 1;
+    }
+
+    public static boolean hasVerticalRoad(long seed, int chunkX) {
+        return chunkX == 0 || (hash(seed ^ 0x5EED_C011L, chunkX, 0) & 3) != 0; // ~3 in 4 columns
+    }
+
+    public static boolean hasHorizontalRoad(long seed, int chunkY) {
+        return chunkY == 0 || (hash(seed ^ 0x5EED_A0A0L, 0, chunkY) & 3) == 0; // ~1 in 4 rows
+    }
+
+    /** SplitMix64-style mix of the seed and chunk coordinates. */
+    static long hash(long seed, int x, int y) {
+        long z = seed + 0x9E3779B97F4A7C15L * (((long) x << 32) ^ (y & 0xFFFFFFFFL));
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void rebuildTiles() {
+        for (int ty = 0; ty < TILES; ty++) {
+            for (int tx = 0; tx < TILES; tx++) {
+                tiles.setBlocked(tx, ty, true);
+            }
+        }
+        // Any tile a road touches is walkable
+        for (int i = 0; i < roads.length; i += 4) {
+            tiles.clearArea(roads[i], roads[i + 1], roads[i + 2], roads[i + 3]);
+        }
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+
+    /** Road rectangles (main roads and branches) in this chunk. */
+    public int getRoadCount() {
+        return roads.length / 4;
+    }
+
+    public boolean isTileBlocked(int localTileX, int localTileY) {
+        return tiles.isTileBlocked(localTileX, localTileY);
+    }
+
+    public EncounterZone getZone(int localTileX, int localTileY) {
+        return EncounterZone.byId(zones[localTileY * TILES + localTileX]);
+    }
+
+    /** Paints the chunk in chunk-local coordinates. */
+    private void paint(Graphics2D g) {
+        g.setColor(Palette.GRASS);
+        g.fillRect(0, 0, SIZE, SIZE);
+
+        g.setColor(Palette.ROAD);
+        for (int i = 0; i < roads.length; i += 4) {
+            g.fillRect(roads[i], roads[i + 1], roads[i + 2], roads[i + 3]);
+        }
+    }
+
+    /** The pre-rendered terrain for this chunk; see {@link CachedLayer}. */
+    public CachedLayer getLayer() {
+        if (layer == null) {
+            layer = new CachedLayer(this::paint);
+        }
+        return layer;
+    }
+
+    /** Drops the pre-rendered terrain (it is rebuilt on the next draw). */
+    public void releaseLayer() {
+        if (layer != null) {
+            layer.flush();
+            layer = null;
+        }
+    }
+}
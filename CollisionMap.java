@@ -0,0 +1,97 @@
+/**
+ * Packed bitmap of blocked (grass) tiles.
+ * One bit per tile, so a query for a box only touches the handful of tiles it overlaps,
+ * no matter how large the map is, and never allocates.
+ */
+public final class CollisionMap {
+
+    private final int tileSize;
+    private final int widthInTiles;
+    private final int heightInTiles;
+    private final long[] blocked;
+
+    public CollisionMap(int widthInTiles, int heightInTiles, int tileSize) {
+        if (widthInTiles <= 0 || heightInTiles <= 0 || tileSize <= 0) {
+            throw new IllegalArgumentException("Map and tile sizes must be positive");
+        }
+        this.tileSize = tileSize;
+        this.widthInTiles = widthInTiles;
+        this.heightInTiles = heightInTiles;
+        long tiles = (long) widthInTiles * heightInTiles;
+        this.blocked = new long[(int) ((tiles + 63) >>> 6)];
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public int getWidthInTiles() {
+        return widthInTiles;
+    }
+
+    public int getHeightInTiles() {
+        return heightInTiles;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(blocked, 0L);
+    }
+
+    public void setBlocked(int tileX, int tileY, boolean value) {
+        if (tileX < 0 || tileY < 0 || tileX >= widthInTiles || tileY >= heightInTiles) {
+            return;
+        }
+        int bit = tileY * widthInTiles + tileX;
+        if (value) {
+            blocked[bit >>> 6] |= 1L << bit;
+        } else {
+            blocked[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    /** Tiles outside the map are never blocked (the window clamp keeps the avatar in bounds). */
+    public boolean isTileBlocked(int tileX, int tileY) {
+        if (tileX < 0 || tileY < 0 || tileX >= widthInTiles || tileY >= heightInTiles) {
+            return false;
+        }
+        int bit = tileY * widthInTiles + tileX;
+        return (blocked[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Marks every tile overlapped by the given pixel rectangle as walkable.
+     * Matches Rectangle.intersects: touching edges do not count as overlap.
+     */
+    public void clearArea(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+        int firstX = Math.floorDiv(x, tileSize);
+        int lastX = Math.floorDiv(x + width - 1, tileSize);
+        int firstY = Math.floorDiv(y, tileSize);
+        int lastY = Math.floorDiv(y + height - 1, tileSize);
+        for (int ty = firstY; ty <= lastY; ty++) {
+            for (int tx = firstX; tx <= lastX; tx++) {
+                setBlocked(tx, ty, false);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a box in pixel coordinates overlaps any blocked tile.
+     * @return true if the box would collide with grass.
+     */
+    public boolean collides(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) return false;
+        int firstX = Math.floorDiv(x, tileSize);
+        int lastX = Math.floorDiv(x + width - 1, tileSize);
+        int firstY = Math.floorDiv(y, tileSize);
+        int lastY = Math.floorDiv(y + height - 1, tileSize);
+        for (int ty = firstY; ty <= lastY; ty++) {
+            for (int tx = firstX; tx <= lastX; tx++) {
+                if (isTileBlocked(tx, ty)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+/**
+ * A monster's type. How hard one element hits another comes from a table built once, so
+ * working out damage is an array read and a multiply: no objects, no string compares.
+ *
+ * Multipliers are in quarters: 2 is half damage, 4 normal and 8 double.
+ */
+public enum Element {
+    NORMAL("Normal"),
+    FIRE("Fire"),
+    WATER("Water"),
+    GRASS("Grass"),
+    EARTH("Earth"),
+    ELECTRIC("Electric");
+
+    private static final Element[] ELEMENTS = values();
+
+    public static final int COUNT = ELEMENTS.length;
+    public static final int HALF = 2, NEUTRAL = 4, DOUBLE = 8;
+    // [attacker * COUNT + defender]
+    private static final int[] MULTIPLIERS = new int[COUNT * COUNT];
+
+    static {
+        Arrays.fill(MULTIPLIERS, NEUTRAL);
+        strong(FIRE, GRASS);
+        weak(FIRE, WATER);
+        weak(FIRE, EARTH);
+        strong(WATER, FIRE);
+        strong(WATER, EARTH);
+        weak(WATER, GRASS);
+        strong(GRASS, WATER);
+        strong(GRASS, EARTH);
+        weak(GRASS, FIRE);
+        strong(EARTH, ELECTRIC);
+        strong(EARTH, FIRE);
+        weak(EARTH, GRASS);
+        strong(ELECTRIC, WATER);
+        weak(ELECTRIC, EARTH);
+        weak(ELECTRIC, GRASS);
+    }
+
+    private final String displayName;
+
+    Element(String displayName) {
+        this.displayName = displayName;
+    }
+
+    private static void strong(Element attacker, Element defender) {
+        MULTIPLIERS[attacker.ordinal() * COUNT + defender.ordinal()] = DOUBLE;
+    }
+
+    private static void weak(Element attacker, Element defender) {
+        MULTIPLIERS[attacker.ordinal() * COUNT + defender.ordinal()] = HALF;
+    }
+
+    /** The multiplier, in quarters, when this element attacks {@code defender}. */
+    public int against(Element defender) {
+        return MULTIPLIERS[ordinal() * COUNT + defender.ordinal()];
+    }
+
+    /** Damage an attack stat does to a defender: at least 1 for any positive attack. */
+    public static int damage(int attack, Element attacker, Element defender) {
+        if (attack <= 0) return 0;
+        return Math.max(1, attack * MULTIPLIERS[attacker.ordinal() * COUNT + defender.ordinal()] >> 2);
+    }
+
+    /** A line for the battle log, or null for a normal hit. */
+    public static String describe(int multiplier) {
+        if (multiplier > NEUTRAL) return "It's super effective!";
+        if (multiplier < NEUTRAL) return "It's not very effective...";
+        return null;
+    }
+
+    public static Element byId(int id) {
+        return ELEMENTS[id];
+    }
+
+    /** @return The element with this display (or enum) name, ignoring case, or null. */
+    public static Element forName(String name) {
+        for (Element element : ELEMENTS) {
+            if (element.displayName.equalsIgnoreCase(name)) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /** Like {@link #forName} but falls back to {@link #NORMAL}, for names read from saves. */
+    public static Element parse(String name) {
+        Element element = forName(name);
+        return element != null ? element : NORMAL;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
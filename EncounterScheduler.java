@@ -0,0 +1,59 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Decides how far the avatar walks before the next wild encounter. The distance is drawn
+ * once per encounter, as a fixed minimum plus a geometric tail, and then simply counted
+ * down, so a tick costs a subtraction and a compare instead of a random roll.
+ *
+ * The geometric tail is what the old per-tick roll produced: each pixel past the minimum
+ * had the same small chance of being the one.
+ */
+public final class EncounterScheduler {
+
+    /** Zone weight at which one pixel walked uses one pixel of the distance. */
+    public static final int NORMAL_WEIGHT = 4;
+
+    public static final int DEFAULT_MIN_PIXELS = 500;
+    public static final double DEFAULT_MEAN_EXTRA_PIXELS = 200;
+
+    private final RandomGenerator random;
+    private final int minPixels;
+    private final double logOneMinusP;
+    private int budget; // in pixels * NORMAL_WEIGHT
+
+    public EncounterScheduler(RandomGenerator random) {
+        this(random, DEFAULT_MIN_PIXELS, DEFAULT_MEAN_EXTRA_PIXELS);
+    }
+
+    /**
+     * @param minPixels Pixels (at normal weight) that are always walked before an encounter.
+     * @param meanExtraPixels Average of the geometric part on top of that.
+     */
+    public EncounterScheduler(RandomGenerator random, int minPixels, double meanExtraPixels) {
+        this.random = random;
+        this.minPixels = minPixels;
+        this.logOneMinusP = Math.log1p(-1.0 / (meanExtraPixels + 1)); // p = 1 / (mean + 1)
+        reschedule();
+    }
+
+    /** Draws the distance to the next encounter. */
+    public void reschedule() {
+        // Inverse CDF of the geometric distribution
+        long extra = (long) Math.floor(Math.log(1.0 - random.nextDouble()) / logOneMinusP);
+        budget = (int) Math.min(Integer.MAX_VALUE / NORMAL_WEIGHT, minPixels + extra) * NORMAL_WEIGHT;
+    }
+
+    /**
+     * Counts down for pixels walked in a zone.
+     * @return true once the encounter is due; call {@link #reschedule} after handling it.
+     */
+    public boolean advance(int pixels, int zoneWeight) {
+        budget -= pixels * zoneWeight;
+        return budget <= 0;
+    }
+
+    /** Pixels left at normal weight. */
+    public int getRemainingPixels() {
+        return Math.max(0, budget) / NORMAL_WEIGHT;
+    }
+}
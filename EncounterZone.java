@@ -0,0 +1,77 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * What can be met on a tile, and how often. Every chunk tile stores one of these (by
+ * ordinal); walking drains the {@link EncounterScheduler}'s budget at the zone's weight,
+ * and the zone's species table picks the wild monster.
+ */
+public enum EncounterZone {
+    /** The starting crossroads; nothing attacks here. */
+    TOWN("Crossroads", 0),
+    ROAD("Road", 4,
+            "Snorb", 3, "Fluffin", 3, "Dirtbeast", 2, "Barkachu", 2),
+    /** The dead-end branches off the main roads. */
+    DIRT_TRACK("Dirt Track", 6,
+            "Dirtbeast", 5, "Snorb", 2, "Barkachu", 1),
+    /** The main roads of some chunks run through woods instead. */
+    FOREST_PATH("Forest Path", 5,
+            "Fluffin", 4, "Barkachu", 4, "Snorb", 1);
+
+    private static final EncounterZone[] ZONES = values();
+
+    private final String displayName;
+    private final int weight;
+    private final Species[] species;
+    private final int[] cumulativeWeights;
+
+    /**
+     * @param weight Budget used per pixel walked; {@link EncounterScheduler#NORMAL_WEIGHT} is
+     *               the base rate and 0 means no encounters.
+     * @param speciesAndWeights Alternating species name (from the {@link SpeciesRegistry}) and relative weight.
+     */
+    EncounterZone(String displayName, int weight, Object... speciesAndWeights) {
+        this.displayName = displayName;
+        this.weight = weight;
+        this.species = new Species[speciesAndWeights.length / 2];
+        this.cumulativeWeights = new int[species.length];
+        int total = 0;
+        for (int i = 0; i < species.length; i++) {
+            String name = (String) speciesAndWeights[2 * i];
+            species[i] = SpeciesRegistry.shared().forName(name);
+            if (species[i] == null) {
+                throw new IllegalStateException("Zone " + displayName + " lists unknown species " + name);
+            }
+            total += (Integer) speciesAndWeights[2 * i + 1];
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static EncounterZone byId(int id) {
+        return ZONES[id];
+    }
+
+    public byte id() {
+        return (byte) ordinal();
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /** Picks a species from this zone's table, or null if nothing lives here. */
+    public Species rollSpecies(RandomGenerator random) {
+        if (species.length == 0) {
+            return null;
+        }
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (roll >= cumulativeWeights[i]) {
+            i++;
+        }
+        return species[i];
+    }
+}
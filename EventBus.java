@@ -0,0 +1,186 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import javax.swing.Timer;
+
+/**
+ * Typed game events with no allocation per event once warmed up. Each event type has a
+ * small pool of instances; publishing fills one, hands it to the listeners and returns it.
+ *
+ * A listener is either {@link Delivery#SYNC}, called inside {@code publish}, or
+ * {@link Delivery#PER_FRAME}, called once per frame with everything published since the
+ * last one, which suits listeners that only refresh a display.
+ *
+ * EDT only.
+ */
+public final class EventBus {
+
+    public enum Delivery { SYNC, PER_FRAME }
+
+    @FunctionalInterface
+    public interface Listener<E extends GameEvent> {
+        void handle(E event);
+    }
+
+    /** Returned by {@link #subscribe}; cancelling it stops further deliveries. */
+    @FunctionalInterface
+    public interface Subscription {
+        void cancel();
+    }
+
+    private static final int FRAME_MILLIS = 16;
+    private static final int MAX_POOLED = 64; // per type
+
+    private static final Listener<?>[] NONE = new Listener<?>[0];
+
+    // Per event type; replaced, never modified, so delivery can iterate without copying
+    private final Listener<?>[][] syncListeners = new Listener<?>[GameEvent.TYPE_COUNT][];
+    private final Listener<?>[][] frameListeners = new Listener<?>[GameEvent.TYPE_COUNT][];
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ArrayDeque<GameEvent>[] pools = new ArrayDeque[GameEvent.TYPE_COUNT];
+
+    private ArrayList<GameEvent> pending = new ArrayList<>();
+    private ArrayList<GameEvent> draining = new ArrayList<>();
+    private final Timer frameTimer = new Timer(FRAME_MILLIS, e -> flush());
+
+    private final long[] published = new long[GameEvent.TYPE_COUNT];
+    private long allocated = 0;
+    private long frames = 0;
+
+    public EventBus() {
+        for (int type = 0; type < GameEvent.TYPE_COUNT; type++) {
+            syncListeners[type] = NONE;
+            frameListeners[type] = NONE;
+            pools[type] = new ArrayDeque<>();
+        }
+        frameTimer.setCoalesce(true);
+        frameTimer.setRepeats(false);
+    }
+
+    public <E extends GameEvent> Subscription subscribe(Class<E> eventClass, Delivery delivery, Listener<? super E> listener) {
+        int type = GameEvent.typeOf(eventClass);
+        Listener<?>[][] table = delivery == Delivery.SYNC ? syncListeners : frameListeners;
+        Listener<?>[] old = table[type];
+        Listener<?>[] added = Arrays.copyOf(old, old.length + 1);
+        added[old.length] = listener;
+        table[type] = added;
+        return () -> unsubscribe(table, type, listener);
+    }
+
+    public void publishBattleEnded(boolean boss, GameEvent.BattleEnded.Outcome outcome) {
+        publish(((GameEvent.BattleEnded) obtain(GameEvent.BattleEnded.TYPE)).set(boss, outcome));
+    }
+
+    public void publishCoinsChanged(int total, int delta) {
+        publish(((GameEvent.CoinsChanged) obtain(GameEvent.CoinsChanged.TYPE)).set(total, delta));
+    }
+
+    public void publishMonsterCaught(Monster monster) {
+        publish(((GameEvent.MonsterCaught) obtain(GameEvent.MonsterCaught.TYPE)).set(monster));
+    }
+
+    public void publishStageChanged(int stage, int attack) {
+        publish(((GameEvent.StageChanged) obtain(GameEvent.StageChanged.TYPE)).set(stage, attack));
+    }
+
+    /** Whether the per-frame flush timer is waiting to fire. */
+    public boolean isFlushScheduled() {
+        return frameTimer.isRunning();
+    }
+
+    /** Events handed out so far, of all types. */
+    public long getPublished() {
+        long total = 0;
+        for (long count : published) {
+            total += count;
+        }
+        return total;
+    }
+
+    /** Event instances created because the pool was empty; stops growing once warmed up. */
+    public long getAllocated() {
+        return allocated;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EventBus[battles=%d, coins=%d, catches=%d, stages=%d, allocated=%d, frames=%d]",
+                published[GameEvent.BattleEnded.TYPE], published[GameEvent.CoinsChanged.TYPE],
+                published[GameEvent.MonsterCaught.TYPE], published[GameEvent.StageChanged.TYPE],
+                allocated, frames);
+    }
+
+    private GameEvent obtain(int type) {
+        GameEvent event = pools[type].poll();
+        if (event == null) {
+            event = GameEvent.create(type);
+            allocated++;
+        }
+        return event;
+    }
+
+    private void recycle(GameEvent event) {
+        event.clear();
+        ArrayDeque<GameEvent> pool = pools[event.type];
+        if (pool.size() < MAX_POOLED) {
+            pool.push(event);
+        }
+    }
+
+    private void publish(GameEvent event) {
+        published[event.type]++;
+        deliver(syncListeners[event.type], event);
+        if (frameListeners[event.type].length > 0) {
+            pending.add(event);
+            if (!frameTimer.isRunning()) {
+                frameTimer.start();
+            }
+        } else {
+            recycle(event);
+        }
+    }
+
+    /** Hands everything queued since the last frame to the per-frame listeners. */
+    private void flush() {
+        // Swap first: a listener may publish, and that belongs to the next frame
+        ArrayList<GameEvent> batch = pending;
+        pending = draining;
+        draining = batch;
+        frames++;
+        for (int i = 0; i < batch.size(); i++) {
+            GameEvent event = batch.get(i);
+            deliver(frameListeners[event.type], event);
+            recycle(event);
+        }
+        batch.clear();
+        if (!pending.isEmpty() && !frameTimer.isRunning()) {
+            frameTimer.start();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void deliver(Listener<?>[] listeners, GameEvent event) {
+        for (Listener listener : listeners) {
+            try {
+                listener.handle(event);
+            } catch (RuntimeException e) {
+                // One broken listener shouldn't keep the event from the others
+                System.err.println("Event listener failed on " + event + ": " + e);
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static void unsubscribe(Listener<?>[][] table, int type, Listener<?> listener) {
+        Listener<?>[] old = table[type];
+        for (int i = 0; i < old.length; i++) {
+            if (old[i] == listener) {
+                Listener<?>[] removed = new Listener<?>[old.length - 1];
+                System.arraycopy(old, 0, removed, 0, i);
+                System.arraycopy(old, i + 1, removed, i, old.length - i - 1);
+                table[type] = removed.length == 0 ? NONE : removed;
+                return;
+            }
+        }
+    }
+}
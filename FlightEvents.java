@@ -0,0 +1,133 @@
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+
+/**
+ * Java Flight Recorder events for the game's hitch-prone paths: chunk generation,
+ * sprite decodes, battle turns, Mr. Foster's stage changes and dialogs. In a recording they
+ * show up under "Monster Dudes", lined up against GC, JIT and thread activity, so a stutter
+ * report can point at the exact chunk, sprite or turn that caused it.
+ *
+ * Events cost next to nothing when no recording is running. Record with {@code --jfr=FILE}
+ * or the usual {@code -XX:StartFlightRecording}.
+ */
+public final class FlightEvents {
+
+    private static final String CATEGORY = "Monster Dudes";
+
+    private FlightEvents() {
+    }
+
+    @Name("monsterdudes.Chunk")
+    @Label("Chunk Generation")
+    @Category({CATEGORY, "World"})
+    @Description("A world chunk generated from the seed")
+    public static final class ChunkGeneration extends Event {
+        @Label("Chunk X")
+        public int chunkX;
+        @Label("Chunk Y")
+        public int chunkY;
+        @Label("Roads")
+        public int roads;
+    }
+
+    @Name("monsterdudes.Sprite")
+    @Label("Sprite Decode")
+    @Category({CATEGORY, "Assets"})
+    @Description("A sprite image read and decoded (cache misses only)")
+    public static final class SpriteDecode extends Event {
+        @Label("Path")
+        public String path;
+        @Label("Width")
+        public int width;
+        @Label("Height")
+        public int height;
+        @Label("Decoded Size")
+        @DataAmount
+        public long bytes;
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("monsterdudes.Turn")
+    @Label("Battle Turn")
+    @Category({CATEGORY, "Battle"})
+    @Description("One BattleEngine turn: the player's attack and the answer")
+    public static final class Turn extends Event {
+        @Label("Battle")
+        public String kind;
+        @Label("Attacker")
+        public String attacker;
+        @Label("Enemy")
+        public String enemy;
+        @Label("Player Damage")
+        public int playerDamage;
+        @Label("Enemy Damage")
+        public int enemyDamage;
+        @Label("Boss Move")
+        public String bossMove;
+        @Label("Outcome")
+        public String outcome;
+    }
+
+    /**
+     * An instant event: committed without begin()/end(), so it has no duration and sits at
+     * the moment of the change, inside the Turn event that caused it.
+     */
+    @Name("monsterdudes.BossStage")
+    @Label("Boss Stage Change")
+    @Category({CATEGORY, "Battle"})
+    @Description("Mr. Foster moving to his next stage")
+    public static final class BossStage extends Event {
+        @Label("From Stage")
+        public int fromStage;
+        @Label("To Stage")
+        public int toStage;
+        @Label("Boss HP")
+        public int bossHp;
+        @Label("Boss Attack")
+        public int bossAttack;
+    }
+
+    @Name("monsterdudes.Dialog")
+    @Label("Dialog")
+    @Category({CATEGORY, "UI"})
+    @Description("A dialog from the moment it opened until it closed")
+    // Emitted by Game, so nothing in here touches AWT and headless runs don't load it
+    public static final class DialogShown extends Event {
+        @Label("Title")
+        public String title;
+        @Label("Class")
+        public String type;
+        @Label("Modal")
+        public boolean modal;
+    }
+
+    /**
+     * Starts a recording with the JDK's "profile" settings plus all of the above, written
+     * to {@code file} when the JVM exits.
+     */
+    public static Recording startRecording(File file) throws IOException {
+        Configuration profile;
+        try {
+            profile = Configuration.getConfiguration("profile");
+        } catch (ParseException e) {
+            throw new IOException("Could not read the JFR profile settings", e);
+        }
+        Recording recording = new Recording(profile);
+        recording.setName("Monster Dudes");
+        recording.setDestination(file.toPath());
+        recording.setToDisk(true);
+        recording.setDumpOnExit(true);
+        recording.start();
+        return recording;
+    }
+}
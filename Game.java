@@ -1,16 +1,29 @@
+import java.awt.AWTEvent;
 import java.awt.Color;
+import java.awt.Dialog;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
-import java.awt.Rectangle;
+import java.awt.Point;
+import java.awt.Shape;
+import java.awt.Toolkit;
+import java.awt.Window;
 import java.awt.event.KeyEvent;
-import java.awt.event.KeyListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferStrategy;
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
-import javax.imageio.ImageIO;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
@@ -19,7 +32,7 @@ import javax.swing.JFrame;
 import javax.swing.JLabel; // Import JLabel
 import javax.swing.JOptionPane; // Import JOptionPane
 import javax.swing.JPanel;
-import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
 @FunctionalInterface
@@ -27,251 +40,354 @@ interface RunnableWithMonster {
     void run(Monster chosen);
 }
 
-public class Game extends JPanel implements KeyListener {
+public class Game extends JPanel {
 
     private static final int GAME_WIDTH = 800;
     private static final int GAME_HEIGHT = 600;
 
-    private int avatarX;
-    private int avatarY;
+    private static final int TARGET_FPS = 120;
 
-    private Image avatarFront;
-    private Image avatarBack;
-    private Image avatarLeft;
-    private Image avatarRight;
-    private Image currentAvatar;
+    private volatile Image avatarFront;
+    private volatile Image avatarBack;
+    private volatile Image avatarLeft;
+    private volatile Image avatarRight;
 
     private JFrame frame;
 
-    private boolean inBattle = false;
-    private boolean waitingForMoveAfterBattle = false;
+    // Avatar, input and encounters; ticked by the game loop thread or the Swing timer
+    private final Overworld overworld;
+    private final GameRandom random;
+    private final Session session; // null unless this session is being recorded
+    private final File sessionFile;
+    private volatile BossAI.Difficulty bossDifficulty = BossAI.Difficulty.NORMAL; // set from Main
 
     private Monster playerMonster; // This will be the first monster in collectedMonsters
 
     private boolean showInventory = false;
     private JDialog inventoryDialog;
-    private List<Monster> collectedMonsters = new ArrayList<>();
+    private MonsterRoster collectedMonsters = new MonsterRoster();
 
-    private boolean upPressed = false;
-    private boolean downPressed = false;
-    private boolean leftPressed = false;
-    private boolean rightPressed = false;
-    private boolean shiftPressed = false;
-    private boolean ePressed = false;
-    private boolean xPressed = false; // Added for boss battle trigger
+    private volatile double scaleFactor;
 
-    private double scaleFactor;
+    private GameLoop gameLoop; // null when running on the Swing timer
+    private Timer tickTimer; // null when running on the game loop
+    private final AtomicBoolean shutDown = new AtomicBoolean();
+    private final PerfOverlay perfOverlay = new PerfOverlay(this::countGameTimers);
+    // Where this panel sits inside the frame, for drawing into the frame's BufferStrategy
+    private volatile int panelOffsetX;
+    private volatile int panelOffsetY;
 
     private boolean inventoryOpen = false;
 
-    private int coins;
+    private volatile int coins; // written on the EDT, drawn by the loop thread in --loop mode
 
-    private List<Rectangle> grassCollisionAreas = new ArrayList<>();
-    private List<Rectangle> roadRects = new ArrayList<>();
+    private World world;
 
-    private static final int TILE_SIZE = 32;
-    private static final int ROAD_WIDTH = 48; // approx 1.5x avatar width (32)
+    private final AutosaveService autosave;
+    private final EventBus events = new EventBus();
+    private static final File SAVE_DIRECTORY = new File("save");
 
     // Boss Battle specific variables
-    private int battlesWon = 0;
-    private static final int BOSS_THRESHOLD = 10;
+    private volatile int battlesWon = 0; // same as coins
+    private static final int BOSS_THRESHOLD = BattleEngine.BOSS_THRESHOLD;
     private boolean bossBattleAvailable = false;
     private JDialog bossPromptDialog; // To keep track of the boss prompt dialog
 
-    public Game() {
+    /**
+     * @param useGameLoop true to drive the world from a dedicated fixed-timestep thread with
+     *                    active rendering, false for the classic Swing timer.
+     * @param worldSeed Seed the overworld chunks are generated from.
+     * @param sessionSeed Seed for every random roll this session ({@link GameRandom}).
+     * @param recordSession Where to save a {@link Session} recording on exit, or null.
+     */
+    public Game(boolean useGameLoop, long worldSeed, long sessionSeed, File recordSession) {
+        // Decoded in the background; a placeholder box stands in until each sprite arrives
+        avatarFront = loadAvatar("/Game Items/avatar_front.png", img -> avatarFront = img);
+        avatarBack = loadAvatar("/Game Items/avatar_back.png", img -> avatarBack = img);
+        avatarLeft = loadAvatar("/Game Items/avatar_left.png", img -> avatarLeft = img);
+        avatarRight = loadAvatar("/Game Items/avatar_right.png", img -> avatarRight = img);
+
+        // Pick up where the last session left off; its world seed wins over the one passed in
+        SaveStore saveStore = new SaveStore(SAVE_DIRECTORY);
+        SaveGame saved = null;
         try {
-            avatarFront = ImageIO.read(getClass().getResource("/Game Items/avatar_front.png"));
-            avatarBack = ImageIO.read(getClass().getResource("/Game Items/avatar_back.png"));
-            avatarLeft = ImageIO.read(getClass().getResource("/Game Items/avatar_left.png"));
-            avatarRight = ImageIO.read(getClass().getResource("/Game Items/avatar_right.png"));
-            currentAvatar = avatarFront;
+            saved = saveStore.load();
         } catch (IOException e) {
-            e.printStackTrace();
+            System.err.println("Could not load the save, starting a new game: " + e.getMessage());
+        }
+        if (saved != null) {
+            worldSeed = saved.worldSeed;
+            System.out.println("Restored save: " + saved + " (" + saveStore.getRecordsReplayed() + " journal records)");
         }
 
-        // Generate the procedural map with road and grass collision
-        generateMap();
+        boolean restored = saved != null && !saved.monsters.isEmpty();
+
+        // The overworld is generated chunk by chunk around the avatar from the seed
+        world = new World(worldSeed);
+        random = new GameRandom(sessionSeed);
+        // A new game starts on the crossroads in the middle of chunk (0, 0)
+        int startX = restored ? saved.avatarX : Chunk.SIZE / 2 - 16;
+        int startY = restored ? saved.avatarY : Chunk.SIZE / 2 - 16;
+        overworld = new Overworld(world, random, startX, startY, new Overworld.Listener() {
+            @Override
+            public void encounter(EncounterZone zone) {
+                SwingUtilities.invokeLater(() -> startEncounter(zone));
+            }
+
+            @Override
+            public void actionPressed(InputQueue.Action action) {
+                if (action == InputQueue.Action.INVENTORY) {
+                    SwingUtilities.invokeLater(Game.this::toggleInventory);
+                    System.out.println("e pressed - toggle inventory");
+                } else if (action == InputQueue.Action.BOSS) {
+                    SwingUtilities.invokeLater(Game.this::bossKeyPressed);
+                }
+            }
+        });
+        InputQueue input = overworld.getInput();
 
+        trackDialogs(); // Battles, prompts and option panes show up in flight recordings
         frame = new JFrame("Monster APSCA-A FINAL PROJECT");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.add(this);
-        frame.addKeyListener(this);
+        KeyBindings.install(this, input);
+        KeyBindings.installToggle(this, KeyEvent.VK_F3, "perfOverlay", () -> {
+            perfOverlay.toggle();
+            repaint();
+        });
+        // Keys released while another window has focus never reach us
+        frame.addWindowFocusListener(new WindowAdapter() {
+            @Override
+            public void windowLostFocus(WindowEvent e) {
+                input.releaseAll();
+            }
+        });
         frame.setSize(GAME_WIDTH, GAME_HEIGHT);
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
 
-        avatarX = (GAME_WIDTH - 64) / 2;
-        avatarY = (GAME_HEIGHT - 64) / 2;
-
-        playerMonster = new Monster(); // Initial monster
-        collectedMonsters.add(playerMonster); // Add initial monster to collection
-
-        updateScaleFactor();
-
-        Timer timer = new Timer(16, e -> {
-            // If in battle (regular or boss), just repaint
-            if (inBattle) {
-                repaint();
-                return;
-            }
-            // If waiting for move after battle and no movement keys are pressed, just repaint
-            if (waitingForMoveAfterBattle && !upPressed && !downPressed && !leftPressed && !rightPressed) {
-                repaint();
-                return;
+        if (restored) {
+            coins = saved.coins;
+            battlesWon = saved.battlesWon;
+            collectedMonsters = saved.monsters;
+            playerMonster = collectedMonsters.get(0);
+        } else {
+            playerMonster = new Monster(); // Initial monster
+            collectedMonsters.add(playerMonster); // Add initial monster to collection
+            try {
+                saveStore.writeSnapshot(captureSave()); // The journal needs a snapshot to apply to
+            } catch (IOException e) {
+                System.err.println("Could not save the game: " + e.getMessage());
             }
-            // If waitingForMoveAfterBattle is true and a movement key is pressed, reset it
-            if (waitingForMoveAfterBattle) {
-                waitingForMoveAfterBattle = false;
+        }
+        if (recordSession != null) {
+            session = new Session(sessionSeed,
+                    new SaveGame(worldSeed, startX, startY, coins, battlesWon, collectedMonsters.snapshot()),
+                    new InputRecording(), new BattleRecording());
+            overworld.record(session.input);
+        } else {
+            session = null;
+        }
+        sessionFile = recordSession;
+        // From here on saving happens on the autosave thread
+        autosave = new AutosaveService(saveStore, this::captureSave);
+        // The close button gets here on the EDT before EXIT_ON_CLOSE exits; the hook covers Ctrl+C
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                shutdown();
             }
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "Game Saver"));
+        // Game state reacts first, then the journal records the result
+        events.subscribe(GameEvent.BattleEnded.class, EventBus.Delivery.SYNC, this::battleEnded);
+        subscribeAutosave();
 
-            int baseSpeed = 1;
-            int speed = shiftPressed ? baseSpeed * 4 : baseSpeed * 2;
-
-            boolean moved = false;
-            int prevX = avatarX;
-            int prevY = avatarY;
+        updateScaleFactor();
 
-            if (upPressed) {
-                avatarY -= speed;
-                currentAvatar = avatarFront;
-                moved = true;
-            }
-            if (downPressed) {
-                avatarY += speed;
-                currentAvatar = avatarBack;
-                moved = true;
-            }
-            if (leftPressed) {
-                avatarX -= speed;
-                currentAvatar = avatarLeft;
-                moved = true;
-            }
-            if (rightPressed) {
-                avatarX += speed;
-                currentAvatar = avatarRight;
-                moved = true;
+        frame.addComponentListener(new java.awt.event.ComponentAdapter() {
+            public void componentResized(java.awt.event.ComponentEvent e) {
+                updateScaleFactor();
             }
+        });
 
-            // Clamp avatar inside window boundaries
-            avatarX = Math.max(0, Math.min(avatarX, GAME_WIDTH - 32));
-            avatarY = Math.max(0, Math.min(avatarY, GAME_HEIGHT - 32));
-
-            // Collision check: avatar cannot walk on grass collision areas
-            Rectangle avatarRect = new Rectangle(avatarX, avatarY, 32, 32);
+        if (useGameLoop) {
+            // Active rendering: the loop thread owns the frame's back buffer, Swing stops painting it
+            frame.setIgnoreRepaint(true);
+            setIgnoreRepaint(true);
+            frame.createBufferStrategy(2);
+            gameLoop = new GameLoop(new GameLoop.Simulation() {
+                @Override
+                public void update() {
+                    tickOverworld();
+                }
 
-            boolean collided = false;
-            for (Rectangle grass : grassCollisionAreas) {
-                if (avatarRect.intersects(grass)) {
-                    collided = true;
-                    break;
+                @Override
+                public void render(double alpha) {
+                    renderActive(alpha);
                 }
-            }
+            }, TARGET_FPS);
+            gameLoop.start();
+        } else {
+            tickTimer = new Timer(16, e -> {
+                tickOverworld();
+                repaint();
+            });
+            tickTimer.start();
+        }
+    }
 
-            if (collided) {
-                avatarX = prevX;
-                avatarY = prevY;
+    /**
+     * Stops the simulation, closes the world on the thread that was simulating it, notes where
+     * the recorded session ended, then writes the last save. Runs once, from whichever of the
+     * close button and the shutdown hook comes first.
+     */
+    private void shutdown() {
+        if (!shutDown.compareAndSet(false, true)) return;
+        if (gameLoop != null) {
+            gameLoop.stop(); // Waits for the loop thread to let go of the world
+            world.close();
+        }
+        // The timer ticks on the EDT and battles change the roster there
+        runOnEdt(() -> {
+            if (tickTimer != null) {
+                tickTimer.stop();
+                world.close();
             }
-
-            if (moved && !collided) {
-                pixelsSinceLastBattle += speed;
-                if (pixelsSinceLastBattle >= PIXEL_THRESHOLD && Math.random() < 0.01) {
-                    inBattle = true;
-                    pixelsSinceLastBattle = 0;
-
-                    // Check if boss battle is available but not triggered yet
-                    if (battlesWon >= BOSS_THRESHOLD && !bossBattleAvailable && bossPromptDialog == null) {
-                        bossBattleAvailable = true;
-                        showBossPrompt();
-                        // If boss prompt is shown, don't start regular battle immediately
-                        inBattle = false; // Stay in exploration mode while prompt is up
-                    } else if (!bossBattleAvailable) { // Only trigger regular battle if boss battle isn't pending
-                        if (collectedMonsters.size() > 1) {
-                            selectMonsterForBattle(chosenMonster -> {
-                                startBattle(chosenMonster);
-                            });
-                        } else {
-                            startBattle(playerMonster);
-                        }
-                    }
-                }
+            if (session != null) {
+                session.end(overworld, coins, battlesWon, collectedMonsters);
             }
-
-            repaint();
         });
-        timer.start();
-
-        frame.addComponentListener(new java.awt.event.ComponentAdapter() {
-            public void componentResized(java.awt.event.ComponentEvent e) {
-                updateScaleFactor();
+        if (session != null) {
+            try {
+                session.save(sessionFile);
+                System.out.println("Saved session (" + session.getEndState() + ") to " + sessionFile);
+            } catch (IOException e) {
+                System.err.println("Could not save the session recording: " + e.getMessage());
             }
-        });
+        }
+        autosave.close();
+        System.out.println(events);
     }
 
-    private void generateMap() {
-        grassCollisionAreas.clear();
-        roadRects.clear();
+    /**
+     * Runs {@code task} on the EDT and waits for it. If the EDT doesn't answer within a second
+     * it is stuck in System.exit and touches nothing, so the task runs here instead.
+     */
+    private static void runOnEdt(Runnable task) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            task.run();
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        SwingUtilities.invokeLater(() -> {
+            task.run();
+            done.complete(null);
+        });
+        try {
+            done.get(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("The EDT didn't answer, shutting down on " + Thread.currentThread().getName());
+            task.run();
+        }
+    }
 
-        int verticalTiles = GAME_HEIGHT / TILE_SIZE;
+    /**
+     * Emits a {@link FlightEvents.DialogShown} for every dialog, ours or Swing's (JOptionPane
+     * included), spanning window-opened to window-closed.
+     */
+    private static void trackDialogs() {
+        Map<Window, FlightEvents.DialogShown> open = new IdentityHashMap<>(); // EDT only
+        Toolkit.getDefaultToolkit().addAWTEventListener(e -> {
+            if (!(e.getSource() instanceof Dialog)) return;
+            Dialog dialog = (Dialog) e.getSource();
+            if (e.getID() == WindowEvent.WINDOW_OPENED) {
+                FlightEvents.DialogShown event = new FlightEvents.DialogShown();
+                event.begin();
+                open.put(dialog, event);
+            } else if (e.getID() == WindowEvent.WINDOW_CLOSED) {
+                FlightEvents.DialogShown event = open.remove(dialog);
+                if (event == null) return;
+                event.end();
+                if (event.shouldCommit()) {
+                    event.title = dialog.getTitle();
+                    event.type = dialog.getClass().getName();
+                    event.modal = dialog.isModal();
+                    event.commit();
+                }
+            }
+        }, AWTEvent.WINDOW_EVENT_MASK);
+    }
 
-        int roadX = (GAME_WIDTH / 2) - (ROAD_WIDTH / 2);
-        Rectangle mainRoad = new Rectangle(roadX, 0, ROAD_WIDTH, GAME_HEIGHT);
-        roadRects.add(mainRoad);
+    private void tickOverworld() {
+        long start = System.nanoTime();
+        overworld.tick();
+        perfOverlay.getTickTimes().record(System.nanoTime() - start);
+    }
 
-        for (int y = 0; y < verticalTiles; y++) {
-            int tileY = y * TILE_SIZE;
-            for (int x = 0; x < GAME_WIDTH; x += TILE_SIZE) {
-                Rectangle tileRect = new Rectangle(x, tileY, TILE_SIZE, TILE_SIZE);
+    /** Swing timers of ours that are running right now, for the overlay. */
+    private int countGameTimers() {
+        int running = 0;
+        if (tickTimer != null && tickTimer.isRunning()) running++;
+        if (Tweens.shared().isTimerRunning()) running++;
+        if (events.isFlushScheduled()) running++;
+        return running;
+    }
 
-                boolean isOnRoad = false;
-                for (Rectangle road : roadRects) {
-                    if (road.intersects(tileRect)) {
-                        isOnRoad = true;
-                        break;
-                    }
-                }
-                if (!isOnRoad) {
-                    grassCollisionAreas.add(tileRect);
-                }
-            }
-        }
+    public Game(boolean useGameLoop, long worldSeed) {
+        this(useGameLoop, worldSeed, System.nanoTime(), null);
+    }
 
-        int branchSpacingTiles = 5; // Increased spacing (e.g., every 5 tiles instead of 2)
-        int branchStartTile = 2;
+    public Game(boolean useGameLoop) {
+        this(useGameLoop, System.nanoTime());
+    }
 
-        // Left branches: start at x = 1 tile away, width shrunk by 1 tile
-        for (int i = 0; i < 3; i++) {
-            int branchY = (branchStartTile + i * branchSpacingTiles) * TILE_SIZE;
-            Rectangle branch = new Rectangle(TILE_SIZE, branchY, roadRects.get(0).x - TILE_SIZE, ROAD_WIDTH);
-            roadRects.add(branch);
-            grassCollisionAreas.removeIf(grassTile -> grassTile.intersects(branch));
-        }
+    public Game() {
+        this(false);
+    }
 
-        // Right branches: width reduced by 1 tile from the right edge
-        for (int i = 0; i < 2; i++) {
-            int branchY = (branchStartTile + i * branchSpacingTiles) * TILE_SIZE;
-            int branchX = roadRects.get(0).x + ROAD_WIDTH;
-            int branchWidth = GAME_WIDTH - branchX - TILE_SIZE; // subtract 1 tile from right edge
-            Rectangle branch = new Rectangle(branchX, branchY, branchWidth, ROAD_WIDTH);
-            roadRects.add(branch);
-            grassCollisionAreas.removeIf(grassTile -> grassTile.intersects(branch));
+    private void bossKeyPressed() {
+        if (bossBattleAvailable && !overworld.isInBattle() && bossPromptDialog == null) {
+            showBossPrompt();
+            System.out.println("x pressed - show boss prompt");
+        } else if (overworld.isInBattle()) {
+            System.out.println("Cannot trigger boss battle: currently in another battle.");
+        } else if (!bossBattleAvailable) {
+            System.out.println("Boss battle not available yet (defeat " + BOSS_THRESHOLD + " monsters).");
         }
+    }
 
-        // Just to be sure, remove grass collision on all road areas
-        for (Rectangle road : roadRects) {
-            grassCollisionAreas.removeIf(grassTile -> grassTile.intersects(road));
+    private void startEncounter(EncounterZone zone) {
+        // Check if boss battle is available but not triggered yet
+        if (battlesWon >= BOSS_THRESHOLD && !bossBattleAvailable && bossPromptDialog == null) {
+            bossBattleAvailable = true;
+            // If boss prompt is shown, don't start regular battle immediately
+            overworld.battleOver(); // Stay in exploration mode while prompt is up
+            showBossPrompt();
+        } else if (!bossBattleAvailable) { // Only trigger regular battle if boss battle isn't pending
+            if (collectedMonsters.size() > 1) {
+                selectMonsterForBattle(chosenMonster -> {
+                    startBattle(chosenMonster, zone);
+                });
+            } else {
+                startBattle(playerMonster, zone);
+            }
+        } else {
+            overworld.battleOver(); // Boss is pending; keep exploring until the player answers it with X
         }
     }
 
-    private int pixelsSinceLastBattle = 0;
-    private static final int PIXEL_THRESHOLD = 500;
-
     public void addCoins(int amount) {
         coins += amount;
+        events.publishCoinsChanged(coins, amount);
     }
 
     public boolean spendCoins(int amount) {
         if (coins >= amount) {
             coins -= amount;
+            events.publishCoinsChanged(coins, -amount);
             return true;
         }
         return false;
@@ -281,15 +397,95 @@ public class Game extends JPanel implements KeyListener {
         return coins;
     }
 
-    public void incrementBattlesWon() {
+    /** The session's random streams; battles draw from these rather than their own Random. */
+    public GameRandom getRandom() {
+        return random;
+    }
+
+    public BossAI.Difficulty getBossDifficulty() {
+        return bossDifficulty;
+    }
+
+    public void setBossDifficulty(BossAI.Difficulty bossDifficulty) {
+        this.bossDifficulty = bossDifficulty;
+    }
+
+    /** Battles, the HUD and the inventory publish and listen for game events here. */
+    public EventBus getEvents() {
+        return events;
+    }
+
+    private void incrementBattlesWon() {
         battlesWon++;
         // If the threshold is met, make boss battle available
         if (battlesWon >= BOSS_THRESHOLD && !bossBattleAvailable) {
             bossBattleAvailable = true;
-            showBossPrompt();
+            // After the listeners for this battle have run, not from inside them
+            SwingUtilities.invokeLater(this::showBossPrompt);
+        }
+    }
+
+    /** A battle dialog closed: let the avatar move again and update the battle counter. */
+    private void battleEnded(GameEvent.BattleEnded event) {
+        overworld.battleOver(); // Also lets go of every key; movement resumes on a new press
+        if (event.isBoss()) {
+            bossBattleAvailable = false; // Reset boss battle availability after it starts
+            battlesWon = 0; // Reset regular battle count after boss fight
+        } else if (event.getOutcome() == GameEvent.BattleEnded.Outcome.WON) {
+            incrementBattlesWon(); // Counter for the boss battle
         }
     }
 
+    /** Notes a battle or Inventory action for the session recording, if there is one. EDT only. */
+    public void recordBattleAction(BattleRecording.Action action, int a, int b) {
+        if (session != null) {
+            session.battles.add(overworld.getTickCount(), action, a, b);
+        }
+    }
+
+    /** Journals a monster's new HP after it took damage or was healed. */
+    public void monsterHpChanged(Monster monster) {
+        if (monster != null && monster.isViewOf(collectedMonsters)) {
+            int index = monster.getRosterIndex();
+            int hp = monster.getHp();
+            autosave.record(s -> s.appendHp(index, hp));
+        }
+    }
+
+    /**
+     * Journals game events. Each record captures its values now, since the events are
+     * pooled and the autosave thread writes later.
+     */
+    private void subscribeAutosave() {
+        events.subscribe(GameEvent.CoinsChanged.class, EventBus.Delivery.SYNC, e -> {
+            int total = e.getTotal();
+            autosave.record(s -> s.appendCoins(total));
+        });
+        events.subscribe(GameEvent.MonsterCaught.class, EventBus.Delivery.SYNC, e -> {
+            // Copy it; the live monster may change before the autosave thread writes the record
+            Monster monster = e.getMonster();
+            Monster caught = new Monster(monster.getSpecies(), monster.getAttack(),
+                    monster.getAge(), monster.getWeight(), monster.getMaxHealth());
+            caught.setHp(monster.getHp());
+            autosave.record(s -> s.appendCatch(caught));
+        });
+        events.subscribe(GameEvent.BattleEnded.class, EventBus.Delivery.SYNC, e -> {
+            // The position isn't worth a record on every step, only when a battle ends
+            int x = overworld.getAvatarX();
+            int y = overworld.getAvatarY();
+            int won = battlesWon;
+            autosave.record(s -> {
+                s.appendBattlesWon(won);
+                s.appendPosition(x, y);
+            });
+        });
+    }
+
+    /** The current state for a snapshot. Cheap: the roster is shared copy-on-write. */
+    private SaveGame captureSave() {
+        return new SaveGame(world.getSeed(), overworld.getAvatarX(), overworld.getAvatarY(), coins, battlesWon, collectedMonsters.snapshot());
+    }
+
     private void showBossPrompt() {
         if (bossPromptDialog != null && bossPromptDialog.isVisible()) {
             return; // Don't show again if already visible
@@ -337,34 +533,20 @@ public class Game extends JPanel implements KeyListener {
     }
 
     private void healAllMonsters() {
-        for (Monster m : collectedMonsters) {
-            m.healToFull();
-        }
+        collectedMonsters.healAll();
+        autosave.record(SaveStore::appendHealAll);
         System.out.println("All monsters healed to full before boss battle!");
     }
 
     private void startBossBattle() {
-        if (inBattle) return; // Prevent starting if already in any battle
-        
+        if (overworld.isInBattle()) return; // Prevent starting if already in any battle
+
+        recordBattleAction(BattleRecording.Action.BOSS, 0, 0);
         healAllMonsters(); // Heal all monsters before the boss fight
-        inBattle = true; // Set battle flag for the main game loop
+        overworld.battleStarted(); // Stops the avatar from the next tick
 
-        // Create and show the BossBattle dialog
-        new BossBattle(frame, this, collectedMonsters) {
-            @Override
-            public void dispose() {
-                super.dispose();
-                inBattle = false; // Battle ended, allow movement
-                waitingForMoveAfterBattle = true; // Prevent immediate movement
-                bossBattleAvailable = false; // Reset boss battle availability after it starts
-                battlesWon = 0; // Reset regular battle count after boss fight
-                // Clear any pending movement keys
-                upPressed = false;
-                downPressed = false;
-                leftPressed = false;
-                rightPressed = false;
-            }
-        };
+        // Create and show the BossBattle dialog; it publishes BattleEnded when it closes
+        new BossBattle(frame, this, collectedMonsters);
     }
 
     private void toggleInventory() {
@@ -379,12 +561,31 @@ public class Game extends JPanel implements KeyListener {
             inventoryDialog.setSize(300, 400);
             inventoryDialog.setLocationRelativeTo(frame);
             Inventory inventoryPanel = new Inventory(this, collectedMonsters);
-            inventoryDialog.add(new JScrollPane(inventoryPanel));
+            inventoryDialog.add(inventoryPanel); // The panel scrolls its own table
             inventoryDialog.setVisible(true);
             inventoryOpen = true;
         }
     }
 
+    /** Starts loading an avatar sprite and returns a placeholder to draw until it arrives. */
+    private Image loadAvatar(String path, java.util.function.Consumer<Image> setter) {
+        AssetLoader.shared().load(path, 32, 32).thenAccept(img -> {
+            if (img != null) {
+                setter.accept(img);
+            }
+        });
+        return AssetLoader.placeholder(32, 32);
+    }
+
+    private Image avatarFacing(InputQueue.Action facing) {
+        switch (facing) {
+            case DOWN: return avatarBack;
+            case LEFT: return avatarLeft;
+            case RIGHT: return avatarRight;
+            default: return avatarFront;
+        }
+    }
+
     private void updateScaleFactor() {
         int windowWidth = getWidth();
         int windowHeight = getHeight();
@@ -392,45 +593,101 @@ public class Game extends JPanel implements KeyListener {
             scaleFactor = 1.0;
             return;
         }
+        Point offset = SwingUtilities.convertPoint(this, 0, 0, frame);
+        panelOffsetX = offset.x;
+        panelOffsetY = offset.y;
         double xScale = (double) windowWidth / GAME_WIDTH;
         double yScale = (double) windowHeight / GAME_HEIGHT;
-        scaleFactor = Math.min(xScale, yScale);
+        double newScale = Math.min(xScale, yScale);
+        scaleFactor = newScale;
     }
 
     @Override
     protected void paintComponent(Graphics g) {
+        if (gameLoop != null) {
+            return; // the loop thread owns rendering (and the world) in this mode
+        }
         super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
+        renderScene((Graphics2D) g, getWidth(), getHeight(), 1.0);
+    }
+
+    /** Draws one frame straight into the frame's back buffer (game-loop mode only). */
+    private void renderActive(double alpha) {
+        BufferStrategy strategy = frame.getBufferStrategy();
+        if (strategy == null) return;
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    g.translate(panelOffsetX, panelOffsetY);
+                    g.setClip(0, 0, getWidth(), getHeight());
+                    renderScene((Graphics2D) g, getWidth(), getHeight(), alpha);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private void renderScene(Graphics2D g2d, int width, int height, double alpha) {
+        long start = System.nanoTime();
         g2d.setColor(java.awt.Color.BLACK);
-        g2d.fillRect(0, 0, getWidth(), getHeight());
+        g2d.fillRect(0, 0, width, height);
+
+        double scale = scaleFactor;
+        int scaledWidth = (int) (GAME_WIDTH * scale);
+        int scaledHeight = (int) (GAME_HEIGHT * scale);
+        int xOffset = (width - scaledWidth) / 2;
+        int yOffset = (height - scaledHeight) / 2;
+        // The camera follows the avatar, interpolated between the last two ticks
+        int prevAvatarX = overworld.getPrevAvatarX();
+        int prevAvatarY = overworld.getPrevAvatarY();
+        int drawX = (int) Math.round(prevAvatarX + (overworld.getAvatarX() - prevAvatarX) * alpha);
+        int drawY = (int) Math.round(prevAvatarY + (overworld.getAvatarY() - prevAvatarY) * alpha);
+        int cameraX = drawX + 16 - GAME_WIDTH / 2;
+        int cameraY = drawY + 16 - GAME_HEIGHT / 2;
+
+        Shape oldClip = g2d.getClip();
+        g2d.clipRect(xOffset, yOffset, scaledWidth, scaledHeight);
+
+        // Each visible chunk's terrain is pre-rendered at the current scale; drawing it is a single blit
+        int chunkPixels = (int) Math.ceil(Chunk.SIZE * scale);
+        int firstChunkX = Math.floorDiv(cameraX, Chunk.SIZE);
+        int lastChunkX = Math.floorDiv(cameraX + GAME_WIDTH - 1, Chunk.SIZE);
+        int firstChunkY = Math.floorDiv(cameraY, Chunk.SIZE);
+        int lastChunkY = Math.floorDiv(cameraY + GAME_HEIGHT - 1, Chunk.SIZE);
+        for (int cy = firstChunkY; cy <= lastChunkY; cy++) {
+            for (int cx = firstChunkX; cx <= lastChunkX; cx++) {
+                int screenX = xOffset + (int) Math.floor(((long) cx * Chunk.SIZE - cameraX) * scale);
+                int screenY = yOffset + (int) Math.floor(((long) cy * Chunk.SIZE - cameraY) * scale);
+                world.getChunk(cx, cy).getLayer().draw(g2d, screenX, screenY, chunkPixels, chunkPixels, scale);
+            }
+        }
 
-        int scaledWidth = (int) (GAME_WIDTH * scaleFactor);
-        int scaledHeight = (int) (GAME_HEIGHT * scaleFactor);
-        int xOffset = (getWidth() - scaledWidth) / 2;
-        int yOffset = (getHeight() - scaledHeight) / 2;
         AffineTransform oldTransform = g2d.getTransform();
         g2d.translate(xOffset, yOffset);
-        g2d.scale(scaleFactor, scaleFactor);
-
-        // Draw green grass background (fill entire area first)
-        g2d.setColor(new Color(34, 139, 34)); // forest green grass
-        g2d.fillRect(0, 0, GAME_WIDTH, GAME_HEIGHT);
-
-        // Draw dirt road (brown rectangles)
-        g2d.setColor(new Color(139, 69, 19)); // brown dirt color
-        for (Rectangle road : roadRects) {
-            g2d.fillRect(road.x, road.y, road.width, road.height);
-        }
+        g2d.scale(scale, scale);
 
         // Draw avatar
-        if (currentAvatar != null) {
-            g2d.drawImage(currentAvatar, avatarX, avatarY, 32, 32, this);
+        Image avatar = avatarFacing(overworld.getFacing());
+        if (avatar != null) {
+            g2d.drawImage(avatar, drawX - cameraX, drawY - cameraY, 32, 32, this);
         }
+        g2d.setClip(oldClip);
 
         g2d.setColor(java.awt.Color.WHITE);
-        g2d.drawString("Pixels since last battle: " + pixelsSinceLastBattle, 10, 20);
+        g2d.drawString("Pixels since last battle: " + overworld.getPixelsSinceLastBattle()
+                + " (" + overworld.getZone().getDisplayName() + ")", 10, 20);
         g2d.drawString("Coins: " + coins, 10, 40);
         g2d.drawString("Battles: " + battlesWon + "/" + BOSS_THRESHOLD, 10, 60); // New counter display
+        if (gameLoop != null) {
+            g2d.drawString(String.format("TPS: %d  FPS: %d  tick: %.2f ms  frame: %.2f ms  input: %.2f ms",
+                    gameLoop.getTicksPerSecond(), gameLoop.getFramesPerSecond(),
+                    gameLoop.getAverageTickMillis(), gameLoop.getAverageFrameMillis(),
+                    overworld.getAverageInputLatencyMillis()), 10, 80);
+        }
 
         g2d.setTransform(oldTransform);
 
@@ -440,6 +697,10 @@ public class Game extends JPanel implements KeyListener {
             g2d.setColor(java.awt.Color.WHITE);
             g2d.drawString("Inventory Open", 110, 130);
         }
+
+        // Recorded before the overlay draws, so it doesn't time itself
+        perfOverlay.getPaintTimes().record(System.nanoTime() - start);
+        perfOverlay.draw(g2d, width, 10);
     }
 
     private void selectMonsterForBattle(RunnableWithMonster onMonsterSelected) {
@@ -448,18 +709,12 @@ public class Game extends JPanel implements KeyListener {
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
 
         // Filter for non-fainted monsters
-        List<Monster> availableMonsters = new ArrayList<>();
-        for (Monster m : collectedMonsters) {
-            if (!m.isFainted()) {
-                availableMonsters.add(m);
-            }
-        }
+        List<Monster> availableMonsters = collectedMonsters.available();
 
         if (availableMonsters.isEmpty()) {
             JOptionPane.showMessageDialog(selectionDialog, "All your monsters have fainted! You ran away.", "No Monsters Available", JOptionPane.ERROR_MESSAGE);
             selectionDialog.dispose();
-            inBattle = false; // End the battle attempt
-            waitingForMoveAfterBattle = true;
+            overworld.battleOver(); // End the battle attempt
             return;
         }
 
@@ -479,80 +734,8 @@ public class Game extends JPanel implements KeyListener {
         selectionDialog.setVisible(true);
     }
     
-    private void startBattle(Monster chosenMonster) {
-        new Battle(frame, this, chosenMonster, collectedMonsters) {
-            @Override
-            public void dispose() {
-                super.dispose();
-                inBattle = false;
-                waitingForMoveAfterBattle = true;
-                // Clear any pending movement keys
-                upPressed = false;
-                downPressed = false;
-                leftPressed = false;
-                rightPressed = false;
-            }
-        };
-    }
-
-    @Override
-    public void keyPressed(KeyEvent e) {
-        int code = e.getKeyCode();
-        if (code == KeyEvent.VK_W) {
-            upPressed = true;
-            currentAvatar = avatarFront;
-        } else if (code == KeyEvent.VK_S) {
-            downPressed = true;
-            currentAvatar = avatarBack;
-        } else if (code == KeyEvent.VK_A) {
-            leftPressed = true;
-            currentAvatar = avatarLeft;
-        } else if (code == KeyEvent.VK_D) {
-            rightPressed = true;
-            currentAvatar = avatarRight;
-        } else if (code == KeyEvent.VK_SHIFT) {
-            shiftPressed = true;
-        } else if (code == KeyEvent.VK_E) {
-            if (!ePressed) { // Only trigger once per press
-                ePressed = true;
-                toggleInventory();
-                System.out.println("e pressed - toggle inventory");
-            }
-        } else if (code == KeyEvent.VK_X) { // New: 'X' key for boss battle
-            if (!xPressed) { // Only trigger once per press
-                xPressed = true;
-                if (bossBattleAvailable && !inBattle && bossPromptDialog == null) {
-                    showBossPrompt();
-                    System.out.println("x pressed - show boss prompt");
-                } else if (inBattle) {
-                    System.out.println("Cannot trigger boss battle: currently in another battle.");
-                } else if (!bossBattleAvailable) {
-                    System.out.println("Boss battle not available yet (defeat " + BOSS_THRESHOLD + " monsters).");
-                }
-            }
-        }
+    private void startBattle(Monster chosenMonster, EncounterZone zone) {
+        recordBattleAction(BattleRecording.Action.WILD, chosenMonster.getRosterIndex(), 0);
+        new Battle(frame, this, chosenMonster, collectedMonsters, zone); // Publishes BattleEnded when it closes
     }
-
-    @Override
-    public void keyReleased(KeyEvent e) {
-        int code = e.getKeyCode();
-        if (code == KeyEvent.VK_W) {
-            upPressed = false;
-        } else if (code == KeyEvent.VK_S) {
-            downPressed = false;
-        } else if (code == KeyEvent.VK_A) {
-            leftPressed = false;
-        } else if (code == KeyEvent.VK_D) {
-            rightPressed = false;
-        } else if (code == KeyEvent.VK_SHIFT) {
-            shiftPressed = false;
-        } else if (code == KeyEvent.VK_E) {
-            ePressed = false;
-        } else if (code == KeyEvent.VK_X) {
-            xPressed = false;
-        }
-    }
-
-    @Override
-    public void keyTyped(KeyEvent e) {}
-}
\ No newline at end of file
+}
@@ -0,0 +1,164 @@
+/**
+ * Something that happened in the game, delivered by {@link EventBus}.
+ * Events are pooled: an instance is only valid while a listener is handling it and is
+ * refilled for a later event afterwards, so listeners copy out what they need to keep.
+ */
+public abstract class GameEvent {
+
+    static final int TYPE_COUNT = 4;
+
+    final int type;
+
+    GameEvent(int type) {
+        this.type = type;
+    }
+
+    /** Drops references before the event goes back to the pool. */
+    void clear() {
+    }
+
+    static GameEvent create(int type) {
+        switch (type) {
+            case BattleEnded.TYPE: return new BattleEnded();
+            case CoinsChanged.TYPE: return new CoinsChanged();
+            case MonsterCaught.TYPE: return new MonsterCaught();
+            case StageChanged.TYPE: return new StageChanged();
+            default: throw new IllegalArgumentException("Unknown event type " + type);
+        }
+    }
+
+    static int typeOf(Class<? extends GameEvent> eventClass) {
+        if (eventClass == BattleEnded.class) return BattleEnded.TYPE;
+        if (eventClass == CoinsChanged.class) return CoinsChanged.TYPE;
+        if (eventClass == MonsterCaught.class) return MonsterCaught.TYPE;
+        if (eventClass == StageChanged.class) return StageChanged.TYPE;
+        throw new IllegalArgumentException("Not a game event: " + eventClass.getName());
+    }
+
+    /** A battle dialog closed. */
+    public static final class BattleEnded extends GameEvent {
+        static final int TYPE = 0;
+
+        public enum Outcome { WON, LOST, FLED }
+
+        private boolean boss;
+        private Outcome outcome;
+
+        BattleEnded() {
+            super(TYPE);
+        }
+
+        BattleEnded set(boolean boss, Outcome outcome) {
+            this.boss = boss;
+            this.outcome = outcome;
+            return this;
+        }
+
+        public boolean isBoss() {
+            return boss;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        @Override
+        public String toString() {
+            return (boss ? "Boss battle " : "Battle ") + "ended: " + outcome;
+        }
+    }
+
+    /** The player's coin total changed. */
+    public static final class CoinsChanged extends GameEvent {
+        static final int TYPE = 1;
+
+        private int total;
+        private int delta;
+
+        CoinsChanged() {
+            super(TYPE);
+        }
+
+        CoinsChanged set(int total, int delta) {
+            this.total = total;
+            this.delta = delta;
+            return this;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getDelta() {
+            return delta;
+        }
+
+        @Override
+        public String toString() {
+            return "Coins " + (delta >= 0 ? "+" : "") + delta + " = " + total;
+        }
+    }
+
+    /** A monster joined the end of the collection. */
+    public static final class MonsterCaught extends GameEvent {
+        static final int TYPE = 2;
+
+        private Monster monster;
+
+        MonsterCaught() {
+            super(TYPE);
+        }
+
+        MonsterCaught set(Monster monster) {
+            this.monster = monster;
+            return this;
+        }
+
+        /** The caught monster as it sits in the roster. */
+        public Monster getMonster() {
+            return monster;
+        }
+
+        @Override
+        void clear() {
+            monster = null;
+        }
+
+        @Override
+        public String toString() {
+            return "Caught " + (monster != null ? monster.getName() : null);
+        }
+    }
+
+    /** Mr. Foster moved to a new stage. */
+    public static final class StageChanged extends GameEvent {
+        static final int TYPE = 3;
+
+        private int stage;
+        private int attack;
+
+        StageChanged() {
+            super(TYPE);
+        }
+
+        StageChanged set(int stage, int attack) {
+            this.stage = stage;
+            this.attack = attack;
+            return this;
+        }
+
+        /** Zero-based stage index. */
+        public int getStage() {
+            return stage;
+        }
+
+        public int getAttack() {
+            return attack;
+        }
+
+        @Override
+        public String toString() {
+            return "Boss stage " + (stage + 1) + ", attack " + attack;
+        }
+    }
+}
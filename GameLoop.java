@@ -0,0 +1,150 @@
+/**
+ * Fixed-timestep game loop running on its own thread.
+ * The simulation always advances in TICK_NANOS steps, while frames are rendered
+ * as often as the frame cap allows, with an interpolation factor for the time
+ * between the last tick and "now".
+ */
+public final class GameLoop implements Runnable {
+
+    /** What the loop drives: a fixed-rate update and a free-running render. */
+    public interface Simulation {
+        void update();
+
+        /** @param alpha How far (0..1) we are between the previous and the current tick. */
+        void render(double alpha);
+    }
+
+    public static final long TICK_NANOS = 16_000_000L; // same step as the old 16 ms Swing timer
+    private static final int MAX_TICKS_PER_FRAME = 5; // don't spiral when a frame takes too long
+
+    private final Simulation simulation;
+    private final long frameNanos;
+    private volatile boolean running = false;
+    private Thread thread;
+
+    // Measured times, smoothed so the HUD readout doesn't flicker
+    private volatile double avgTickNanos = 0;
+    private volatile double avgFrameNanos = 0;
+    private volatile int ticksPerSecond = 0;
+    private volatile int framesPerSecond = 0;
+
+    /**
+     * @param simulation The game to drive.
+     * @param maxFps Render cap in frames per second, or 0 for no cap.
+     */
+    public GameLoop(Simulation simulation, int maxFps) {
+        this.simulation = simulation;
+        this.frameNanos = maxFps > 0 ? 1_000_000_000L / maxFps : 0;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "Game Loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the loop and waits (up to a second) for the tick or frame in progress to finish,
+     * so the caller can tear down what the loop was using. Doesn't wait when called from a tick.
+     */
+    public void stop() {
+        Thread stopping;
+        synchronized (this) {
+            running = false;
+            stopping = thread;
+            thread = null;
+        }
+        if (stopping == null || stopping == Thread.currentThread()) {
+            return;
+        }
+        stopping.interrupt();
+        try {
+            stopping.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        long counterStart = previous;
+        int ticks = 0;
+        int frames = 0;
+
+        while (running) {
+            long frameStart = System.nanoTime();
+            accumulator += frameStart - previous;
+            previous = frameStart;
+
+            int steps = 0;
+            while (accumulator >= TICK_NANOS && steps < MAX_TICKS_PER_FRAME) {
+                long tickStart = System.nanoTime();
+                simulation.update();
+                avgTickNanos = smooth(avgTickNanos, System.nanoTime() - tickStart);
+                accumulator -= TICK_NANOS;
+                steps++;
+                ticks++;
+            }
+            if (steps == MAX_TICKS_PER_FRAME) {
+                accumulator = 0; // we fell too far behind; drop the backlog instead of catching up forever
+            }
+
+            long renderStart = System.nanoTime();
+            simulation.render((double) accumulator / TICK_NANOS);
+            long renderEnd = System.nanoTime();
+            avgFrameNanos = smooth(avgFrameNanos, renderEnd - renderStart);
+            frames++;
+
+            if (renderEnd - counterStart >= 1_000_000_000L) {
+                ticksPerSecond = ticks;
+                framesPerSecond = frames;
+                ticks = 0;
+                frames = 0;
+                counterStart = renderEnd;
+            }
+
+            sleepUntilNextFrame(frameStart);
+        }
+    }
+
+    private void sleepUntilNextFrame(long frameStart) {
+        long wait = frameNanos - (System.nanoTime() - frameStart);
+        if (frameNanos == 0 || wait <= 0) {
+            Thread.yield();
+            return;
+        }
+        try {
+            Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static double smooth(double average, long sample) {
+        return average == 0 ? sample : average * 0.95 + sample * 0.05;
+    }
+
+    public double getAverageTickMillis() {
+        return avgTickNanos / 1_000_000.0;
+    }
+
+    public double getAverageFrameMillis() {
+        return avgFrameNanos / 1_000_000.0;
+    }
+
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public int getFramesPerSecond() {
+        return framesPerSecond;
+    }
+}
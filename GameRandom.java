@@ -0,0 +1,42 @@
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every random roll in a session comes from here. Each named stream is seeded from the
+ * session seed and its name only, so how much one part of the game draws never shifts
+ * what another sees, and the same seed plus the same input replays the same rolls.
+ *
+ * A stream belongs to one thread: "encounters" to the simulation tick, the battle streams
+ * to the EDT.
+ */
+public final class GameRandom {
+
+    public static final String ENCOUNTERS = "encounters";
+    public static final String WILD_BATTLES = "wild battles";
+    public static final String BOSS_BATTLES = "boss battles";
+
+    private final long seed;
+    private final Map<String, SplittableRandom> streams = new ConcurrentHashMap<>();
+
+    public GameRandom(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /** The stream with this name; the same instance every time. */
+    public SplittableRandom stream(String name) {
+        return streams.computeIfAbsent(name, n -> new SplittableRandom(mix(seed, n)));
+    }
+
+    private static long mix(long seed, String name) {
+        // String.hashCode is fixed by the spec, so this is the same on every JVM
+        long z = seed + 0x9E3779B97F4A7C15L * name.hashCode();
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
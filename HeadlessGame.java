@@ -0,0 +1,249 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * The whole game loop without a window: overworld ticks, movement, collision, encounters,
+ * wild battles, catches and the Mr. Foster fight, on the same {@link Overworld},
+ * {@link BattleEngine} and {@link MonsterRoster} the Swing game uses. Nothing here loads
+ * an image or creates an AWT component, so it runs on a box with no display.
+ *
+ * Ticks run back to back on the calling thread, as fast as the CPU allows. Input comes
+ * from a {@link Script}; the decisions the Swing game asks the player for are made the
+ * simple way: the first healthy monster fights, every attack is a plain Attack, every
+ * defeated wild monster gets a catch attempt and the boss is fought as soon as he is
+ * available. Battles resolve within the tick that started them.
+ *
+ * For soak tests and long simulation runs; the same seeds and script give the same run.
+ */
+public final class HeadlessGame {
+
+    /** Where the run's input comes from: hands over the events for each tick, in order. */
+    @FunctionalInterface
+    public interface Script {
+        void play(long tick, InputQueue.Handler handler);
+    }
+
+    private final World world;
+    private final GameRandom random;
+    private final Overworld overworld;
+    private final Script script;
+    private final MonsterRoster party = new MonsterRoster();
+    private final BossAI.Difficulty bossDifficulty;
+    // Script events become queue events, as if the keyboard had sent them
+    private final InputQueue.Handler toQueue = this::offer;
+
+    private int coins = 0;
+    private int battlesWon = 0; // since the last boss fight, as in Game
+    private boolean bossAvailable = false;
+    private long wildWins, wildLosses, wildFled, catches, bossWins, bossLosses, turns, hpHealed;
+    private Session session; // null unless the run is being recorded
+
+    /**
+     * @param worldSeed Seed the overworld chunks are generated from.
+     * @param sessionSeed Seed for every random roll ({@link GameRandom}).
+     * @param bossDifficulty How Mr. Foster picks his moves; anything above CLASSIC uses a
+     *                       time budget, which makes runs depend on CPU speed.
+     */
+    public HeadlessGame(long worldSeed, long sessionSeed, Script script, BossAI.Difficulty bossDifficulty) {
+        this.world = new World(worldSeed);
+        this.random = new GameRandom(sessionSeed);
+        this.script = script;
+        this.bossDifficulty = bossDifficulty;
+        party.add(new Monster());
+        // A new game starts on the crossroads in the middle of chunk (0, 0)
+        int start = Chunk.SIZE / 2 - Overworld.AVATAR_SIZE / 2;
+        this.overworld = new Overworld(world, random, start, start, new Overworld.Listener() {
+            @Override
+            public void encounter(EncounterZone zone) {
+                startEncounter(zone);
+            }
+
+            @Override
+            public void actionPressed(InputQueue.Action action) {
+                if (action == InputQueue.Action.BOSS && bossAvailable && !overworld.isInBattle()) {
+                    fightBoss();
+                    overworld.battleOver();
+                }
+            }
+        });
+    }
+
+    /** Records the rest of the run as a {@link Session}: its input and every battle action. */
+    public Session record() {
+        session = new Session(random.getSeed(), new SaveGame(world.getSeed(), overworld.getAvatarX(),
+                overworld.getAvatarY(), coins, battlesWon, party.snapshot()), new InputRecording(), new BattleRecording());
+        overworld.record(session.input);
+        return session;
+    }
+
+    /** Notes where the recorded run stopped; see {@link Session#end}. */
+    public void endRecording() {
+        session.end(overworld, coins, battlesWon, party);
+    }
+
+    /** Runs {@code ticks} more ticks. */
+    public void run(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            // Queued just before the tick that drains them, so they land on the tick the script says
+            script.play(overworld.getTickCount() + 1, toQueue);
+            overworld.tick();
+        }
+    }
+
+    private void offer(long nanos, int code) {
+        InputQueue input = overworld.getInput();
+        if (code == InputQueue.RELEASE_ALL) {
+            input.releaseAll();
+        } else if (InputQueue.isKey(code)) {
+            input.offer(InputQueue.action(code), InputQueue.isPress(code));
+        }
+        // Recorded battle starts and ends are ignored; this run decides its own battles
+    }
+
+    /** Same rules as Game.startEncounter, with the prompt always answered "Yes!". */
+    private void startEncounter(EncounterZone zone) {
+        if (bossAvailable) {
+            fightBoss();
+        } else {
+            fightWild(zone);
+        }
+        overworld.battleOver(); // Applied on the next tick, like a dialog closing
+    }
+
+    private void fightWild(EncounterZone zone) {
+        SplittableRandom battleRandom = random.stream(GameRandom.WILD_BATTLES);
+        Monster active = party.nextAvailable(null);
+        if (active == null) {
+            healWithCoins();
+            active = party.nextAvailable(null);
+        }
+        if (active == null) {
+            wildFled++; // Nobody can fight and we're broke, so the only button that does anything is Run
+            return;
+        }
+        record(BattleRecording.Action.WILD, active.getRosterIndex(), 0);
+        Species species = zone.rollSpecies(battleRandom);
+        BattleEngine engine = species == null
+                ? BattleEngine.wild(party, active, battleRandom)
+                : BattleEngine.wild(party, active, battleRandom, BattleRules.DEFAULT, species);
+        while (!engine.isOver()) {
+            record(BattleRecording.Action.ATTACK, 0, 0);
+            engine.performTurn();
+        }
+        turns += engine.getTurns();
+        if (engine.getOutcome() == BattleEngine.Outcome.PLAYER_WON) {
+            wildWins++;
+            coins += BattleRules.DEFAULT.wildCoinReward;
+            record(BattleRecording.Action.CATCH, 0, 0);
+            if (engine.attemptCatch() != null) {
+                catches++;
+            }
+            battlesWon++;
+            if (battlesWon >= BattleEngine.BOSS_THRESHOLD) {
+                bossAvailable = true;
+            }
+        } else {
+            wildLosses++;
+        }
+        record(BattleRecording.Action.END, 0, 0);
+    }
+
+    /**
+     * What the player does in the Inventory once nobody can fight: heals the party in roster
+     * order at 1 coin per 5 HP, as far as the coins go.
+     */
+    private void healWithCoins() {
+        for (int i = 0; i < party.size() && coins > 0; i++) {
+            Monster monster = party.get(i);
+            int cost = Math.min((monster.getMaxHealth() - monster.getHp()) / 5, coins);
+            if (cost > 0) {
+                record(BattleRecording.Action.HEAL, i, cost * 5);
+                monster.heal(cost * 5);
+                coins -= cost;
+                hpHealed += cost * 5;
+            }
+        }
+    }
+
+    private void fightBoss() {
+        record(BattleRecording.Action.BOSS, 0, 0);
+        party.healAll(); // As before every boss fight
+        BattleEngine engine = BattleEngine.boss(party, random.stream(GameRandom.BOSS_BATTLES));
+        while (!engine.isOver()) {
+            BossMove move = BossAI.chooseMove(engine, bossDifficulty).join().getMove();
+            record(BattleRecording.Action.BOSS_TURN, move.ordinal(), 0);
+            engine.performTurn(move);
+        }
+        turns += engine.getTurns();
+        if (engine.getOutcome() == BattleEngine.Outcome.PLAYER_WON) {
+            bossWins++;
+            coins += BattleRules.DEFAULT.bossCoinReward;
+        } else {
+            bossLosses++;
+        }
+        bossAvailable = false;
+        battlesWon = 0;
+        record(BattleRecording.Action.END, 0, 0);
+    }
+
+    private void record(BattleRecording.Action action, int a, int b) {
+        if (session != null) {
+            session.battles.add(overworld.getTickCount(), action, a, b);
+        }
+    }
+
+    public Overworld getOverworld() {
+        return overworld;
+    }
+
+    public MonsterRoster getParty() {
+        return party;
+    }
+
+    public void close() {
+        world.close();
+    }
+
+    /** Where the avatar is, plus what the battles came to. */
+    public String describe() {
+        return overworld.describe() + " | wild " + wildWins + "W/" + wildLosses + "L/" + wildFled + "F"
+                + " caught " + catches + " boss " + bossWins + "W/" + bossLosses + "L"
+                + " turns " + turns + " healed " + hpHealed + " coins " + coins + " party " + party.size()
+                + " (" + party.countAvailable() + " able)";
+    }
+
+    /**
+     * Input for a run with no script file: the avatar strolls in a random direction for a
+     * second or few, sometimes running, then picks another. Seeded, so runs repeat.
+     */
+    public static Script wander(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        InputQueue.Action[] directions = {
+            InputQueue.Action.UP, InputQueue.Action.DOWN, InputQueue.Action.LEFT, InputQueue.Action.RIGHT
+        };
+        long[] nextChange = { 1 };
+        return (tick, handler) -> {
+            if (tick < nextChange[0]) return;
+            handler.input(0, InputQueue.RELEASE_ALL);
+            handler.input(0, InputQueue.code(directions[random.nextInt(directions.length)], true));
+            if (random.nextInt(4) == 0) {
+                handler.input(0, InputQueue.code(InputQueue.Action.RUN, true));
+            }
+            nextChange[0] = tick + 60 + random.nextInt(240);
+        };
+    }
+
+    /** Input from a file: a session recording, or bare {@link InputRecording} lines. */
+    public static Script load(File file) throws IOException {
+        try {
+            return Session.load(file).input::play;
+        } catch (IOException notASession) {
+            try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+                return InputRecording.read(in)::play;
+            }
+        }
+    }
+}
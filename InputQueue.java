@@ -0,0 +1,135 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Player input on its way from the keyboard to the simulation. The EDT offers
+ * press/release events stamped with {@link System#nanoTime}; the tick drains them in order,
+ * so a tap that starts and ends between two ticks still reaches the simulation.
+ * Battles starting and ending on the EDT travel the same way, so the tick sees them at a
+ * point that can be recorded and replayed.
+ *
+ * A fixed ring with one producer and one consumer: no locks and no allocation per event.
+ * Producer methods run on one thread (the EDT); {@link #drain} on the tick thread.
+ */
+public final class InputQueue {
+
+    public enum Action { UP, DOWN, LEFT, RIGHT, RUN, INVENTORY, BOSS }
+
+    /** Receives drained events. */
+    @FunctionalInterface
+    public interface Handler {
+        /** @param code A key event ({@link #code}) or one of the control codes. */
+        void input(long nanos, int code);
+    }
+
+    /** Event code meaning "let go of everything", e.g. on focus loss. */
+    public static final int RELEASE_ALL = 0x7F;
+    /** A battle the EDT started (the boss); the avatar stops. */
+    public static final int BATTLE_START = 0x7E;
+    /** The battle or encounter is over: everything is let go and the avatar may move again. */
+    public static final int BATTLE_OVER = 0x7D;
+
+    private static final int CAPACITY = 1024; // power of two
+
+    private final long[] times = new long[CAPACITY];
+    private final byte[] codes = new byte[CAPACITY];
+    private final AtomicLong head = new AtomicLong(); // next slot to drain
+    private final AtomicLong tail = new AtomicLong(); // next slot to fill
+
+    // Producer side only: what the keyboard currently holds, to drop auto-repeat presses
+    private final boolean[] down = new boolean[Action.values().length];
+    private long dropped = 0;
+
+    public static int code(Action action, boolean pressed) {
+        return action.ordinal() << 1 | (pressed ? 1 : 0);
+    }
+
+    public static Action action(int code) {
+        return Action.values()[code >> 1];
+    }
+
+    public static boolean isPress(int code) {
+        return (code & 1) != 0;
+    }
+
+    /** True for key events, false for the RELEASE_ALL and battle codes. */
+    public static boolean isKey(int code) {
+        return code >> 1 < Action.values().length;
+    }
+
+    /** "UP +", "UP -", or the name of a control code; see {@link #parseCode}. */
+    public static String codeName(int code) {
+        switch (code) {
+            case RELEASE_ALL: return "RELEASE_ALL";
+            case BATTLE_START: return "BATTLE_START";
+            case BATTLE_OVER: return "BATTLE_OVER";
+            default: return action(code) + (isPress(code) ? " +" : " -");
+        }
+    }
+
+    public static int parseCode(String name) {
+        switch (name) {
+            case "RELEASE_ALL": return RELEASE_ALL;
+            case "BATTLE_START": return BATTLE_START;
+            case "BATTLE_OVER": return BATTLE_OVER;
+            default:
+                String[] parts = name.split(" ");
+                if (parts.length != 2 || !(parts[1].equals("+") || parts[1].equals("-"))) {
+                    throw new IllegalArgumentException("Not an input event: " + name);
+                }
+                return code(Action.valueOf(parts[0]), parts[1].equals("+"));
+        }
+    }
+
+    /** Queues a press or release; repeats of the current state are ignored. */
+    public void offer(Action action, boolean pressed) {
+        if (down[action.ordinal()] == pressed) {
+            return;
+        }
+        down[action.ordinal()] = pressed;
+        put(code(action, pressed), System.nanoTime());
+    }
+
+    public void releaseAll() {
+        Arrays.fill(down, false);
+        put(RELEASE_ALL, System.nanoTime());
+    }
+
+    public void battleStarted() {
+        put(BATTLE_START, System.nanoTime());
+    }
+
+    public void battleOver() {
+        Arrays.fill(down, false);
+        put(BATTLE_OVER, System.nanoTime());
+    }
+
+    /** Hands every queued event to {@code handler}, oldest first. Consumer thread only. */
+    public int drain(Handler handler) {
+        long h = head.get();
+        long t = tail.get(); // acquire: slots before t are fully written
+        for (long i = h; i < t; i++) {
+            int slot = (int) i & (CAPACITY - 1);
+            handler.input(times[slot], codes[slot]);
+        }
+        head.lazySet(t); // release the slots to the producer
+        return (int) (t - h);
+    }
+
+    /** Events lost because the simulation stopped draining and the ring filled up. */
+    public long getDropped() {
+        return dropped;
+    }
+
+    private void put(int code, long nanos) {
+        long t = tail.get();
+        if (t - head.get() >= CAPACITY) {
+            dropped++;
+            return;
+        }
+        int slot = (int) t & (CAPACITY - 1);
+        times[slot] = nanos;
+        codes[slot] = (byte) code;
+        tail.lazySet(t + 1); // publish after the slot is written
+    }
+}
@@ -0,0 +1,70 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Input as the simulation saw it: each event keyed by the tick that consumed it rather
+ * than by wall-clock time, so feeding it back tick by tick reproduces the same moves.
+ *
+ * Text form, one event per line: {@code <tick> <ACTION> <+|->} or {@code <tick> <CONTROL CODE>}
+ * (see {@link InputQueue#codeName}).
+ */
+public final class InputRecording {
+
+    private long[] ticks = new long[256];
+    private byte[] codes = new byte[256];
+    private int size = 0;
+    private int next = 0; // playback position
+
+    /** Appends an event consumed on {@code tick}; ticks must not go backwards. */
+    public synchronized void add(long tick, int code) {
+        if (size == ticks.length) {
+            ticks = Arrays.copyOf(ticks, size * 2);
+            codes = Arrays.copyOf(codes, size * 2);
+        }
+        ticks[size] = tick;
+        codes[size] = (byte) code;
+        size++;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Hands the events recorded for {@code tick} (and any skipped earlier ones) to {@code handler}. */
+    public synchronized void play(long tick, InputQueue.Handler handler) {
+        long now = System.nanoTime();
+        while (next < size && ticks[next] <= tick) {
+            handler.input(now, codes[next]);
+            next++;
+        }
+    }
+
+    public synchronized boolean isFinished() {
+        return next >= size;
+    }
+
+    public synchronized void write(PrintWriter out) {
+        for (int i = 0; i < size; i++) {
+            out.println(ticks[i] + " " + InputQueue.codeName(codes[i]));
+        }
+    }
+
+    /** Reads lines written by {@link #write} up to the end of the input. */
+    public static InputRecording read(BufferedReader in) throws IOException {
+        InputRecording recording = new InputRecording();
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            int space = line.indexOf(' ');
+            try {
+                recording.add(Long.parseLong(line.substring(0, space)), InputQueue.parseCode(line.substring(space + 1)));
+            } catch (RuntimeException e) {
+                throw new IOException("Can't read input event \"" + line + "\"", e);
+            }
+        }
+        return recording;
+    }
+}
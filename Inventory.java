@@ -1,112 +1,294 @@
+import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Component;
-import java.awt.FlowLayout;
 import java.awt.Font;
-import java.awt.Image;
-import java.io.File;
-import java.io.IOException;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import javax.imageio.ImageIO;
-import javax.swing.Box;
-import javax.swing.BoxLayout;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import javax.swing.AbstractCellEditor;
+import javax.swing.BorderFactory;
+import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellEditor;
+import javax.swing.table.TableCellRenderer;
 
+/**
+ * The monster list. Rows are drawn by a {@link JTable}, so only the visible rows are ever
+ * painted and a single renderer component per column is reused for all of them; opening
+ * and scrolling cost the same for 10 monsters or 100,000. Icons are loaded in the background
+ * the first time a row of that species is painted.
+ */
 public class Inventory extends JPanel {
+    private static final int ICON_SIZE = 50;
+    private static final int ROW_HEIGHT = ICON_SIZE + 6;
+    private static final Color ROW_BACKGROUND = new Color(30, 30, 30);
+
+    private static final int ICON_COLUMN = 0;
+    private static final int NAME_COLUMN = 1;
+    private static final int HEAL_COLUMN = 2;
+
     private List<Monster> monsters;
     private Game game;
+    private final MonsterTableModel model = new MonsterTableModel();
+    private final JTable table;
+    private final JLabel title;
+    private final List<EventBus.Subscription> subscriptions = new ArrayList<>();
 
     public Inventory(Game game, List<Monster> monsters) {
         this.game = game;
         this.monsters = monsters;
-        setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+        setLayout(new BorderLayout());
         setBackground(new Color(0, 0, 0, 200));
 
-        JLabel title = new JLabel("Your Monsters");
+        title = new JLabel("Your Monsters (" + monsters.size() + ")", SwingConstants.CENTER);
         title.setForeground(Color.WHITE);
-        title.setAlignmentX(Component.CENTER_ALIGNMENT);
         title.setFont(new Font("Arial", Font.BOLD, 18));
-        add(Box.createVerticalStrut(10));
-        add(title);
+        title.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+        add(title, BorderLayout.NORTH);
+
+        table = new JTable(model);
+        table.setRowHeight(ROW_HEIGHT);
+        table.setTableHeader(null);
+        table.setShowGrid(false);
+        table.setBackground(ROW_BACKGROUND);
+        table.setForeground(Color.WHITE);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setFillsViewportHeight(true);
+
+        table.getColumnModel().getColumn(ICON_COLUMN).setCellRenderer(new IconRenderer());
+        table.getColumnModel().getColumn(ICON_COLUMN).setMaxWidth(ROW_HEIGHT);
+        table.getColumnModel().getColumn(ICON_COLUMN).setMinWidth(ROW_HEIGHT);
+        HealButtonCell healCell = new HealButtonCell();
+        table.getColumnModel().getColumn(HEAL_COLUMN).setCellRenderer(healCell);
+        table.getColumnModel().getColumn(HEAL_COLUMN).setCellEditor(healCell);
+        table.getColumnModel().getColumn(HEAL_COLUMN).setMaxWidth(80);
+        table.getColumnModel().getColumn(HEAL_COLUMN).setMinWidth(80);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.getVerticalScrollBar().setUnitIncrement(ROW_HEIGHT);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        add(scrollPane, BorderLayout.CENTER);
+    }
+
+    /** Follows catches and battles while the panel is on screen, refreshing at most once a frame. */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        EventBus events = game.getEvents();
+        subscriptions.add(events.subscribe(GameEvent.MonsterCaught.class, EventBus.Delivery.PER_FRAME, e -> {
+            int row = e.getMonster().getRosterIndex();
+            if (row >= 0 && row < monsters.size()) {
+                model.fireTableRowsInserted(row, row);
+            } else {
+                model.fireTableDataChanged();
+            }
+            title.setText("Your Monsters (" + monsters.size() + ")");
+        }));
+        // HP changes during a battle
+        subscriptions.add(events.subscribe(GameEvent.BattleEnded.class, EventBus.Delivery.PER_FRAME,
+                e -> table.repaint()));
+    }
 
-        for (Monster m : monsters) {
-            add(Box.createVerticalStrut(10));
-            add(createMonsterPanel(m));
+    @Override
+    public void removeNotify() {
+        for (EventBus.Subscription subscription : subscriptions) {
+            subscription.cancel();
         }
+        subscriptions.clear();
+        super.removeNotify();
     }
 
-    private JPanel createMonsterPanel(Monster m) {
-        JPanel panel = new JPanel();
-        panel.setLayout(new FlowLayout(FlowLayout.LEFT));
-        panel.setOpaque(false);
+    /** One row per monster; the model reads straight from the list, nothing is copied. */
+    private final class MonsterTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
 
-        JLabel nameLabel = new JLabel(m.getName() + " - HP: " + m.getHp() + "/" + m.getMaxHealth());
-        nameLabel.setForeground(Color.WHITE);
+        @Override
+        public int getRowCount() {
+            return monsters.size();
+        }
 
-        try {
-            String imagePath = "Game Items/" + m.getName().toLowerCase() + ".png";
-            System.out.println("Loading image from: " + imagePath);
-            Image img = ImageIO.read(new File(imagePath));
-            JLabel iconLabel = new JLabel(new ImageIcon(img.getScaledInstance(50, 50, Image.SCALE_SMOOTH)));
-            panel.add(iconLabel);
-        } catch (IOException e) {
-            panel.add(new JLabel("[No image]"));
+        @Override
+        public int getColumnCount() {
+            return 3;
         }
 
-        panel.add(nameLabel);
+        @Override
+        public Object getValueAt(int row, int column) {
+            Monster m = monsters.get(row);
+            switch (column) {
+                case ICON_COLUMN:
+                    return m.getName();
+                case NAME_COLUMN:
+                    return m.getName() + " - HP: " + m.getHp() + "/" + m.getMaxHealth();
+                default:
+                    return "Heal";
+            }
+        }
 
-        JButton healButton = new JButton("Heal");
-        panel.add(healButton);
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return column == HEAL_COLUMN;
+        }
+    }
 
-        healButton.addActionListener(e -> {
-            if (m.getHp() >= m.getMaxHealth()) {
-                JOptionPane.showMessageDialog(this, m.getName() + " is already at full health.");
-                return;
-            }
+    /**
+     * Draws the species sprite. The first time a species scrolls into view its icon is
+     * loaded in the background and a placeholder is drawn; the table repaints when it lands.
+     */
+    private final class IconRenderer extends DefaultTableCellRenderer {
+        private static final long serialVersionUID = 1L;
 
-            String input = JOptionPane.showInputDialog(this, "How much HP to heal?");
-            if (input == null) return;
+        private final Map<String, Icon> icons = new HashMap<>();
+        private final Set<String> missing = new HashSet<>();
+        private final Set<String> loading = new HashSet<>();
 
-            try {
-                int hpToHeal = Integer.parseInt(input);
-                if (hpToHeal <= 0) {
-                    JOptionPane.showMessageDialog(this, "Enter a positive number.");
-                    return;
-                }
+        IconRenderer() {
+            setHorizontalAlignment(SwingConstants.CENTER);
+        }
 
-                if (m.getHp() + hpToHeal > m.getMaxHealth()) {
-                    JOptionPane.showMessageDialog(this, "Error: beyond max health.");
-                    return;
-                }
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            super.getTableCellRendererComponent(table, null, isSelected, false, row, column);
+            String name = (String) value;
+            if (missing.contains(name)) {
+                setIcon(null);
+                setText("[No image]");
+                return this;
+            }
+            Icon icon = icons.get(name);
+            if (icon == null) {
+                icon = request(name);
+            }
+            setIcon(icon);
+            setText(null);
+            return this;
+        }
 
-                int cost = hpToHeal / 5; // 1 coin = 5 HP, rounded down
-                if (cost < 1) {
-                    JOptionPane.showMessageDialog(this, "You must heal at least 5 HP (costs 1 coin).");
-                    return;
+        private Icon request(String name) {
+            CompletableFuture<BufferedImage> future = AssetLoader.shared().loadMonster(name, ICON_SIZE);
+            BufferedImage ready = future.getNow(null);
+            if (ready != null) {
+                Icon icon = new ImageIcon(ready);
+                icons.put(name, icon);
+                return icon;
+            }
+            if (!loading.add(name)) {
+                return AssetLoader.shared().placeholderIcon(ICON_SIZE, ICON_SIZE);
+            }
+            future.whenComplete((img, error) -> SwingUtilities.invokeLater(() -> {
+                loading.remove(name);
+                if (img != null) {
+                    icons.put(name, new ImageIcon(img));
+                } else {
+                    missing.add(name);
                 }
+                table.repaint();
+            }));
+            return AssetLoader.shared().placeholderIcon(ICON_SIZE, ICON_SIZE);
+        }
+    }
 
-                int confirm = JOptionPane.showConfirmDialog(this,
-                        "Cost: " + cost + " coins\nPay?", "Confirm Heal", JOptionPane.OK_CANCEL_OPTION);
-
-                if (confirm == JOptionPane.OK_OPTION) {
-                    if (game.spendCoins(cost)) {
-                        m.heal(hpToHeal);
-                        JOptionPane.showMessageDialog(this, "Healed " + hpToHeal + " HP!");
-                        nameLabel.setText(m.getName() + " - HP: " + m.getHp() + "/" + m.getMaxHealth());
-                        revalidate();
-                        repaint();
-                    } else {
-                        JOptionPane.showMessageDialog(this, "Broke! Not enough coins.");
-                    }
-                }
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "Invalid input. Please enter a number.");
+    /**
+     * The Heal button. One button paints every row; a second one is handed out when a row's
+     * button is clicked, and starts the heal for that row.
+     */
+    private final class HealButtonCell extends AbstractCellEditor implements TableCellRenderer, TableCellEditor {
+        private static final long serialVersionUID = 1L;
+
+        private final JButton rendererButton = new JButton("Heal");
+        private final JButton editorButton = new JButton("Heal");
+        private int editingRow = -1;
+
+        HealButtonCell() {
+            editorButton.addActionListener(e -> {
+                int row = editingRow;
+                fireEditingStopped();
+                // Let the table finish the edit before the modal dialogs open
+                SwingUtilities.invokeLater(() -> heal(row));
+            });
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            return rendererButton;
+        }
+
+        @Override
+        public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected, int row, int column) {
+            editingRow = row;
+            return editorButton;
+        }
+
+        @Override
+        public Object getCellEditorValue() {
+            return "Heal";
+        }
+    }
+
+    private void heal(int row) {
+        if (row < 0 || row >= monsters.size()) return;
+        Monster m = monsters.get(row);
+
+        if (m.getHp() >= m.getMaxHealth()) {
+            JOptionPane.showMessageDialog(this, m.getName() + " is already at full health.");
+            return;
+        }
+
+        String input = JOptionPane.showInputDialog(this, "How much HP to heal?");
+        if (input == null) return;
+
+        try {
+            int hpToHeal = Integer.parseInt(input);
+            if (hpToHeal <= 0) {
+                JOptionPane.showMessageDialog(this, "Enter a positive number.");
+                return;
             }
-        });
 
-        return panel;
+            if (m.getHp() + hpToHeal > m.getMaxHealth()) {
+                JOptionPane.showMessageDialog(this, "Error: beyond max health.");
+                return;
+            }
+
+            int cost = hpToHeal / 5; // 1 coin = 5 HP, rounded down
+            if (cost < 1) {
+                JOptionPane.showMessageDialog(this, "You must heal at least 5 HP (costs 1 coin).");
+                return;
+            }
+
+            int confirm = JOptionPane.showConfirmDialog(this,
+                    "Cost: " + cost + " coins\nPay?", "Confirm Heal", JOptionPane.OK_CANCEL_OPTION);
+
+            if (confirm == JOptionPane.OK_OPTION) {
+                if (game.spendCoins(cost)) {
+                    game.recordBattleAction(BattleRecording.Action.HEAL, m.getRosterIndex(), hpToHeal);
+                    m.heal(hpToHeal);
+                    game.monsterHpChanged(m);
+                    JOptionPane.showMessageDialog(this, "Healed " + hpToHeal + " HP!");
+                    model.fireTableRowsUpdated(row, row);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Broke! Not enough coins.");
+                }
+            }
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid input. Please enter a number.");
+        }
     }
 }
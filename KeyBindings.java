@@ -0,0 +1,64 @@
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import javax.swing.AbstractAction;
+import javax.swing.ActionMap;
+import javax.swing.InputMap;
+import javax.swing.JComponent;
+import javax.swing.KeyStroke;
+
+/**
+ * Maps keys to {@link InputQueue.Action}s through the component's InputMap and ActionMap.
+ * The bindings apply whenever the game window is focused, whichever component inside it
+ * has focus, and each key stroke only queues an event.
+ */
+public final class KeyBindings {
+
+    private KeyBindings() {
+    }
+
+    public static void install(JComponent component, InputQueue queue) {
+        bind(component, queue, KeyEvent.VK_W, InputQueue.Action.UP);
+        bind(component, queue, KeyEvent.VK_S, InputQueue.Action.DOWN);
+        bind(component, queue, KeyEvent.VK_A, InputQueue.Action.LEFT);
+        bind(component, queue, KeyEvent.VK_D, InputQueue.Action.RIGHT);
+        bind(component, queue, KeyEvent.VK_SHIFT, InputQueue.Action.RUN);
+        bind(component, queue, KeyEvent.VK_E, InputQueue.Action.INVENTORY);
+        bind(component, queue, KeyEvent.VK_X, InputQueue.Action.BOSS); // Boss battle trigger
+    }
+
+    /** Runs {@code action} on the EDT each time the key is pressed (for UI toggles that aren't game input). */
+    public static void installToggle(JComponent component, int keyCode, String name, Runnable action) {
+        component.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(keyCode, 0, false), name);
+        component.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+
+    private static void bind(JComponent component, InputQueue queue, int keyCode, InputQueue.Action action) {
+        InputMap inputs = component.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        ActionMap actions = component.getActionMap();
+        String pressName = action + " pressed";
+        String releaseName = action + " released";
+        // Key strokes include modifiers, so bind with and without Shift held (Shift is the run key)
+        for (int modifiers : new int[] {0, InputEvent.SHIFT_DOWN_MASK}) {
+            inputs.put(KeyStroke.getKeyStroke(keyCode, modifiers, false), pressName);
+            inputs.put(KeyStroke.getKeyStroke(keyCode, modifiers, true), releaseName);
+        }
+        actions.put(pressName, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                queue.offer(action, true);
+            }
+        });
+        actions.put(releaseName, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                queue.offer(action, false);
+            }
+        });
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations (in nanoseconds) into log-linear buckets: eight per power of two, so
+ * any value lands in a bucket within 12.5% of it. Recording is a bucket index and one
+ * plain write, cheap enough for every tick and frame.
+ *
+ * One thread records; any thread may read. Counts only ever grow, so a reader takes
+ * recent percentiles through a {@link Window}, which diffs against what it saw last time
+ * instead of resetting anything under the writer.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (63 - SUB_BITS + 1) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** From the recording thread only. */
+    public void record(long nanos) {
+        int i = index(Math.max(0, nanos));
+        counts.lazySet(i, counts.get(i) + 1); // Single writer, so no CAS
+    }
+
+    static int index(long value) {
+        if (value < SUB) {
+            return (int) value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + sub;
+    }
+
+    /** Smallest value that lands in bucket {@code index}. */
+    static long lowerBound(int index) {
+        if (index < SUB) {
+            return index;
+        }
+        int exp = index / SUB - 1 + SUB_BITS;
+        return (long) (SUB + index % SUB) << (exp - SUB_BITS);
+    }
+
+    public Window window() {
+        return new Window();
+    }
+
+    /** The values recorded between two calls to {@link #update}. Use from one thread. */
+    public final class Window {
+        private final long[] seen = new long[BUCKETS];
+        private final long[] delta = new long[BUCKETS];
+        private long count;
+
+        private Window() {
+        }
+
+        /** Moves the window up to now. */
+        public void update() {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long now = counts.get(i);
+                delta[i] = now - seen[i];
+                seen[i] = now;
+                total += delta[i];
+            }
+            count = total;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /** @return The value below which a fraction {@code p} of the window lies (bucket upper bound), or 0 if empty. */
+        public long percentile(double p) {
+            if (count == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(count * p));
+            long sum = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                sum += delta[i];
+                if (sum >= target) {
+                    return i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        public long max() {
+            return percentile(1.0);
+        }
+    }
+}
@@ -1,6 +1,100 @@
+import java.io.File;
+import java.io.IOException;
+
 public class Main {
-    public static void main(String[] args) {
-        System.out.println("Launching Game...");
-        new Game(); // Start the Swing-based game
+    public static void main(String[] args) throws IOException {
+        // --loop runs the world on a dedicated fixed-timestep thread with active rendering
+        // --seed=N picks the overworld seed (same seed, same map)
+        // --session-seed=N picks the seed for encounters and battles
+        // --record-session=FILE saves the seeds, the input the simulation consumed and the battle actions on exit
+        // --replay-session=FILE replays such a file without a window, as fast as possible, and checks the result
+        // --boss-difficulty=classic|easy|normal|hard sets how long Mr. Foster thinks about each move
+        // --jfr=FILE records a flight recording (with the game's own events) and writes it on exit
+        // --headless runs the game with no window, as fast as possible, and prints how it went
+        // --ticks=N is how long a headless run lasts (default: an hour of game time)
+        // --script=FILE gives a headless run its input (a session or input recording) instead of wandering
+        boolean useGameLoop = false;
+        long seed = System.nanoTime();
+        long sessionSeed = System.nanoTime() * 31;
+        File recordSession = null;
+        File replaySession = null;
+        boolean headless = false;
+        long ticks = 60L * 60 * 1_000_000_000L / GameLoop.TICK_NANOS;
+        File script = null;
+        BossAI.Difficulty bossDifficulty = null; // NORMAL in a window; CLASSIC headless, so runs repeat exactly
+        for (String arg : args) {
+            if (arg.equals("--loop")) {
+                useGameLoop = true;
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else if (arg.startsWith("--session-seed=")) {
+                sessionSeed = Long.parseLong(arg.substring("--session-seed=".length()));
+            } else if (arg.startsWith("--record-session=")) {
+                recordSession = new File(arg.substring("--record-session=".length()));
+            } else if (arg.startsWith("--replay-session=")) {
+                replaySession = new File(arg.substring("--replay-session=".length()));
+            } else if (arg.startsWith("--boss-difficulty=")) {
+                bossDifficulty = BossAI.Difficulty.valueOf(arg.substring("--boss-difficulty=".length()).toUpperCase());
+            } else if (arg.equals("--headless")) {
+                headless = true;
+            } else if (arg.startsWith("--ticks=")) {
+                ticks = Long.parseLong(arg.substring("--ticks=".length()));
+            } else if (arg.startsWith("--script=")) {
+                script = new File(arg.substring("--script=".length()));
+            } else if (arg.startsWith("--jfr=")) {
+                File recording = new File(arg.substring("--jfr=".length()));
+                FlightEvents.startRecording(recording);
+                System.out.println("Recording to " + recording + " until exit");
+            }
+        }
+        if (replaySession != null) {
+            System.exit(replay(replaySession) ? 0 : 1);
+        }
+        if (headless) {
+            runHeadless(seed, sessionSeed, script, ticks,
+                    bossDifficulty != null ? bossDifficulty : BossAI.Difficulty.CLASSIC, recordSession);
+            return;
+        }
+        System.out.println("Launching Game" + (useGameLoop ? " (game loop)" : "") + ", world seed " + seed
+                + ", session seed " + sessionSeed + "...");
+        Game game = new Game(useGameLoop, seed, sessionSeed, recordSession); // Start the Swing-based game
+        game.setBossDifficulty(bossDifficulty != null ? bossDifficulty : BossAI.Difficulty.NORMAL);
+    }
+
+    private static void runHeadless(long seed, long sessionSeed, File script, long ticks,
+                                    BossAI.Difficulty bossDifficulty, File recordSession) throws IOException {
+        System.setProperty("java.awt.headless", "true"); // Nothing should need it; fail loudly if it does
+        System.out.println("Headless run: world seed " + seed + ", session seed " + sessionSeed + ", " + ticks
+                + " ticks, input " + (script != null ? script.toString() : "wandering") + ", boss " + bossDifficulty);
+        HeadlessGame game = new HeadlessGame(seed, sessionSeed,
+                script != null ? HeadlessGame.load(script) : HeadlessGame.wander(sessionSeed), bossDifficulty);
+        Session session = recordSession != null ? game.record() : null;
+        long start = System.nanoTime();
+        game.run(ticks);
+        double millis = (System.nanoTime() - start) / 1e6;
+        double realMillis = ticks * GameLoop.TICK_NANOS / 1e6;
+        System.out.printf("Ran in %.1f ms (%.0fx real time)%n", millis, realMillis / Math.max(millis, 0.001));
+        System.out.println(game.describe());
+        if (session != null) {
+            game.endRecording();
+            session.save(recordSession);
+            System.out.println("Saved session to " + recordSession);
+        }
+        game.close();
+    }
+
+    private static boolean replay(File file) throws IOException {
+        Session session = Session.load(file);
+        System.out.println("Replaying " + file + ": " + session.getEndTick() + " ticks, "
+                + session.input.size() + " input events, " + session.battles.size() + " battle actions");
+        long start = System.nanoTime();
+        String result = session.replayHeadless();
+        double millis = (System.nanoTime() - start) / 1e6;
+        double realMillis = session.getEndTick() * GameLoop.TICK_NANOS / 1e6;
+        System.out.printf("Replayed in %.1f ms (%.0fx real time)%n", millis, realMillis / Math.max(millis, 0.001));
+        boolean match = result.equals(session.getEndState());
+        System.out.println("Recorded: " + session.getEndState());
+        System.out.println("Replayed: " + result + (match ? "  [match]" : "  [MISMATCH]"));
+        return match;
     }
 }
@@ -1,30 +1,46 @@
 
 public class Monster {
-    private String name;
-    private String element;
+    private Species species; // shared; name, element and sprite come from here
     private int attack;
     private int age;
     private int weight;
     private int hp;
     private int maxHp; // Max HP added for healing
 
+    // Set when this monster lives in a MonsterRoster; the fields above are then unused
+    private MonsterRoster roster;
+    private int rosterIndex = -1;
+
     // Constructors
     public Monster() {
         // Default monster (e.g., Doggin, a common starter)
-        this("Doggin", "Normal", 10, 1, 50, 100);
+        this(SpeciesRegistry.shared().forName("Doggin", Element.NORMAL));
+    }
+
+    /** A fresh monster with the species' base stats. */
+    public Monster(Species species) {
+        this(species, species.getBaseAttack(), species.getBaseAge(), species.getBaseWeight(), species.getBaseHp());
     }
 
     public Monster(String name, String element) {
-        this(name, element, 10, 1, 50, 100);
+        this(SpeciesRegistry.shared().forName(name, Element.parse(element)));
     }
 
     public Monster(String name, int hp, int attack) {
-        this(name, "Normal", attack, 1, 50, hp);
+        this(SpeciesRegistry.shared().forName(name, Element.NORMAL), hp, attack);
+    }
+
+    public Monster(Species species, int hp, int attack) {
+        this(species, attack, species.getBaseAge(), species.getBaseWeight(), hp);
     }
 
+    /** The element is only used if the species isn't known yet; see {@link SpeciesRegistry#forName(String, String)}. */
     public Monster(String name, String element, int attack, int age, int weight, int hp) {
-        this.name = name;
-        this.element = element;
+        this(SpeciesRegistry.shared().forName(name, Element.parse(element)), attack, age, weight, hp);
+    }
+
+    public Monster(Species species, int attack, int age, int weight, int hp) {
+        this.species = species;
         this.attack = attack;
         this.age = age;
         this.weight = weight;
@@ -32,74 +48,125 @@ public class Monster {
         this.maxHp = hp; // Initialize maxHp to starting hp
     }
 
+    /** A view of a roster slot; see {@link MonsterRoster#get}. */
+    Monster(MonsterRoster roster, int index) {
+        this.roster = roster;
+        this.rosterIndex = index;
+    }
+
+    /** Moves this monster's state into a roster slot (called by {@link MonsterRoster#add}). */
+    void attach(MonsterRoster roster, int index) {
+        this.roster = roster;
+        this.rosterIndex = index;
+        this.species = null;
+    }
+
+    boolean isView() {
+        return roster != null;
+    }
+
+    boolean isViewOf(MonsterRoster roster) {
+        return this.roster == roster;
+    }
+
+    int getRosterIndex() {
+        return rosterIndex;
+    }
+
     // Getters
+    public Species getSpecies() {
+        return roster != null ? roster.species(rosterIndex) : species;
+    }
+
     public String getName() {
-        return name;
+        return getSpecies().getName();
     }
 
-    public String getElement() {
-        return element;
+    public Element getElement() {
+        return getSpecies().getElement();
     }
 
     public int getAttack() {
-        return attack;
+        return roster != null ? roster.attack(rosterIndex) : attack;
     }
 
     public int getAge() {
-        return age;
+        return roster != null ? roster.age(rosterIndex) : age;
     }
 
     public int getWeight() {
-        return weight;
+        return roster != null ? roster.weight(rosterIndex) : weight;
     }
 
     public int getHp() {
-        return hp;
+        return roster != null ? roster.hp(rosterIndex) : hp;
     }
 
     public int getMaxHealth() { // Changed from getMaxHp to getMaxHealth for consistency
-        return maxHp;
+        return roster != null ? roster.maxHp(rosterIndex) : maxHp;
     }
 
     // Setters (Adding setAttack)
+    /** Changes the species to the one called {@code name}. */
     public void setName(String name) {
-        this.name = name;
+        setSpecies(SpeciesRegistry.shared().forName(name, getElement()));
+    }
+
+    public void setSpecies(Species species) {
+        if (roster != null) {
+            roster.setSpecies(rosterIndex, species);
+        } else {
+            this.species = species;
+        }
     }
 
     public void setHp(int hp) {
-        this.hp = Math.max(0, Math.min(hp, maxHp)); // Ensure HP stays within bounds
+        storeHp(Math.max(0, Math.min(hp, getMaxHealth()))); // Ensure HP stays within bounds
     }
 
     public void setMaxHp(int maxHp) { // Added if you ever need to change max HP
-        this.maxHp = maxHp;
-        setHp(this.hp); // Adjust current HP if new maxHp is smaller
+        if (roster != null) {
+            roster.setMaxHp(rosterIndex, maxHp);
+        } else {
+            this.maxHp = maxHp;
+        }
+        setHp(getHp()); // Adjust current HP if new maxHp is smaller
     }
 
     // ⭐ ADD THIS METHOD ⭐
     public void setAttack(int attack) {
-        this.attack = attack;
+        if (roster != null) {
+            roster.setAttack(rosterIndex, attack);
+        } else {
+            this.attack = attack;
+        }
+    }
+
+    private void storeHp(int hp) {
+        if (roster != null) {
+            roster.setHp(rosterIndex, hp);
+        } else {
+            this.hp = hp;
+        }
     }
 
 
     // Battle actions
     public boolean isFainted() {
-        return hp <= 0;
+        return getHp() <= 0;
     }
 
     public void attack(Monster target) {
-        target.takeDamage(this.attack);
+        target.takeDamage(Element.damage(getAttack(), getElement(), target.getElement()));
     }
 
     public void takeDamage(int damage) {
-        this.hp -= damage;
-        if (this.hp < 0) {
-            this.hp = 0;
-        }
+        storeHp(Math.max(0, getHp() - damage));
     }
 
     // Healing methods
     public void healToFull() {
-        this.hp = this.maxHp;
+        storeHp(getMaxHealth());
     }
 
     /**
@@ -108,12 +175,10 @@ public class Monster {
      * @return The actual amount of HP healed.
      */
     public int heal(int amount) {
-        int oldHp = this.hp;
-        this.hp += amount;
-        if (this.hp > this.maxHp) {
-            this.hp = this.maxHp;
-        }
-        return this.hp - oldHp; // Return actual amount healed
+        int oldHp = getHp();
+        int newHp = Math.min(oldHp + amount, getMaxHealth());
+        storeHp(newHp);
+        return newHp - oldHp; // Return actual amount healed
     }
 
     /**
@@ -125,4 +190,18 @@ public class Monster {
         // 1 coin per 2 HP, rounded up
         return (healAmount + 1) / 2;
     }
+
+    // Two views of the same roster slot are the same monster
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (roster == null || !(o instanceof Monster)) return false;
+        Monster other = (Monster) o;
+        return roster == other.roster && rosterIndex == other.rosterIndex;
+    }
+
+    @Override
+    public int hashCode() {
+        return roster != null ? System.identityHashCode(roster) * 31 + rosterIndex : System.identityHashCode(this);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,342 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The player's collection of monsters, stored column by column: one primitive array per
+ * stat plus the {@link SpeciesRegistry} id of its species. A caught monster
+ * costs 18 bytes instead of a full object and its strings, which matters once a
+ * save holds tens of thousands of them.
+ *
+ * It is still a {@code List<Monster>}: {@link #get} returns a lightweight {@link Monster}
+ * view of a slot, and {@link #add} copies a monster in and turns it into a view of its new
+ * slot, so references held by battles keep seeing the live stats. Views of the same slot
+ * are equal to each other. Monsters can only be appended, so slot indices never move.
+ *
+ * {@link #snapshot} hands out a frozen copy in O(1) by sharing the arrays; whichever
+ * column is written next is copied first (copy-on-write), so the autosave thread can
+ * serialize a snapshot while the game keeps playing.
+ */
+public final class MonsterRoster extends AbstractList<Monster> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private short[] species = new short[INITIAL_CAPACITY];
+    private int[] attack = new int[INITIAL_CAPACITY];
+    private short[] age = new short[INITIAL_CAPACITY];
+    private short[] weight = new short[INITIAL_CAPACITY];
+    private int[] hp = new int[INITIAL_CAPACITY];
+    private int[] maxHp = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // Columns still shared with a snapshot, which must be copied before they are written
+    private static final int SPECIES = 1, ATTACK = 2, AGE = 4, WEIGHT = 8, HP = 16, MAX_HP = 32;
+    private static final int ALL_COLUMNS = 63;
+    private int shared = 0;
+
+    public MonsterRoster() {
+    }
+
+    private MonsterRoster(MonsterRoster source) {
+        species = source.species;
+        attack = source.attack;
+        age = source.age;
+        weight = source.weight;
+        hp = source.hp;
+        maxHp = source.maxHp;
+        size = source.size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** A view of the monster in slot {@code index}. Cheap; nothing is copied. */
+    @Override
+    public Monster get(int index) {
+        checkIndex(index);
+        return new Monster(this, index);
+    }
+
+    /**
+     * Appends a monster. A standalone monster becomes a view of its new slot; one that is
+     * already a view (of this or another roster) is copied, and the argument left as is.
+     */
+    @Override
+    public boolean add(Monster monster) {
+        if (size == hp.length) {
+            grow();
+        } else {
+            own(SPECIES | ATTACK | AGE | WEIGHT | HP | MAX_HP);
+        }
+        int index = size++;
+        species[index] = (short) monster.getSpecies().getId();
+        attack[index] = monster.getAttack();
+        age[index] = clampShort(monster.getAge());
+        weight[index] = clampShort(monster.getWeight());
+        maxHp[index] = monster.getMaxHealth();
+        hp[index] = monster.getHp();
+        if (!monster.isView()) {
+            monster.attach(this, index);
+        }
+        modCount++;
+        return true;
+    }
+
+    /** Restores every monster to full HP. */
+    public void healAll() {
+        own(HP);
+        System.arraycopy(maxHp, 0, hp, 0, size);
+    }
+
+    /**
+     * A frozen copy of the roster as it is now, made without copying anything up front.
+     * Both rosters share the arrays until one of them writes to a column, which then gets
+     * its own copy. Call it on the thread that owns this roster; the copy may then be read
+     * from any thread.
+     */
+    public MonsterRoster snapshot() {
+        MonsterRoster copy = new MonsterRoster(this);
+        shared = ALL_COLUMNS;
+        copy.shared = ALL_COLUMNS;
+        return copy;
+    }
+
+    /** Copies the given columns if a snapshot still shares them. */
+    private void own(int columns) {
+        int copy = shared & columns;
+        if (copy == 0) return;
+        if ((copy & SPECIES) != 0) species = species.clone();
+        if ((copy & ATTACK) != 0) attack = attack.clone();
+        if ((copy & AGE) != 0) age = age.clone();
+        if ((copy & WEIGHT) != 0) weight = weight.clone();
+        if ((copy & HP) != 0) hp = hp.clone();
+        if ((copy & MAX_HP) != 0) maxHp = maxHp.clone();
+        shared &= ~copy;
+    }
+
+    /** @return The first slot at or after {@code from} holding an unfainted monster, or -1. */
+    public int nextAvailable(int from) {
+        for (int i = Math.max(0, from); i < size; i++) {
+            if (hp[i] > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** First unfainted monster other than {@code exclude}, or null. */
+    public Monster nextAvailable(Monster exclude) {
+        int skip = exclude != null && exclude.isViewOf(this) ? exclude.getRosterIndex() : -1;
+        for (int i = 0; i < size; i++) {
+            if (hp[i] > 0 && i != skip) {
+                return new Monster(this, i);
+            }
+        }
+        return null;
+    }
+
+    public int countAvailable() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (hp[i] > 0) count++;
+        }
+        return count;
+    }
+
+    /** Views of every unfainted monster, in roster order. */
+    public List<Monster> available() {
+        List<Monster> result = new ArrayList<>(countAvailable());
+        for (int i = 0; i < size; i++) {
+            if (hp[i] > 0) {
+                result.add(new Monster(this, i));
+            }
+        }
+        return result;
+    }
+
+    // Slot accessors used by Monster views
+
+    Species species(int index) {
+        return SpeciesRegistry.shared().get(species[index]);
+    }
+
+    int attack(int index) {
+        return attack[index];
+    }
+
+    int age(int index) {
+        return age[index];
+    }
+
+    int weight(int index) {
+        return weight[index];
+    }
+
+    int hp(int index) {
+        return hp[index];
+    }
+
+    int maxHp(int index) {
+        return maxHp[index];
+    }
+
+    void setSpecies(int index, Species value) {
+        own(SPECIES);
+        species[index] = (short) value.getId();
+    }
+
+    void setAttack(int index, int value) {
+        own(ATTACK);
+        attack[index] = value;
+    }
+
+    void setHp(int index, int value) {
+        own(HP);
+        hp[index] = value;
+    }
+
+    void setMaxHp(int index, int value) {
+        own(MAX_HP);
+        maxHp[index] = value;
+    }
+
+    private void grow() {
+        int capacity = hp.length + (hp.length >> 1);
+        species = Arrays.copyOf(species, capacity);
+        attack = Arrays.copyOf(attack, capacity);
+        age = Arrays.copyOf(age, capacity);
+        weight = Arrays.copyOf(weight, capacity);
+        hp = Arrays.copyOf(hp, capacity);
+        maxHp = Arrays.copyOf(maxHp, capacity);
+        shared = 0; // Every column is a fresh copy now
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+    }
+
+    /** Bytes {@link #write} will produce. */
+    int serializedSize() {
+        int bytes = 4;
+        for (Species s : speciesTable()) {
+            bytes += 4 + utf8(s.getName()).length + utf8(s.getElement().getDisplayName()).length;
+        }
+        return bytes + 4 + size * (2 + 4 + 2 + 2 + 4 + 4);
+    }
+
+    /**
+     * Every species any slot may refer to. Registry ids only grow, so this covers all of
+     * them; ids aren't stable across runs, so the names are saved and mapped back on read.
+     */
+    private Species[] speciesTable() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count = Math.max(count, species[i] + 1);
+        }
+        Species[] table = new Species[count];
+        for (int id = 0; id < count; id++) {
+            table[id] = SpeciesRegistry.shared().get(id);
+        }
+        return table;
+    }
+
+    /**
+     * Writes the species table and then each stat as one contiguous column, so reading it
+     * back is a handful of bulk copies rather than a loop per monster.
+     */
+    void write(ByteBuffer out) {
+        Species[] table = speciesTable();
+        out.putInt(table.length);
+        for (Species s : table) {
+            putString(out, s.getName());
+            putString(out, s.getElement().getDisplayName());
+        }
+        out.putInt(size);
+        out.asShortBuffer().put(species, 0, size);
+        out.position(out.position() + size * 2);
+        out.asIntBuffer().put(attack, 0, size);
+        out.position(out.position() + size * 4);
+        out.asShortBuffer().put(age, 0, size);
+        out.position(out.position() + size * 2);
+        out.asShortBuffer().put(weight, 0, size);
+        out.position(out.position() + size * 2);
+        out.asIntBuffer().put(hp, 0, size);
+        out.position(out.position() + size * 4);
+        out.asIntBuffer().put(maxHp, 0, size);
+        out.position(out.position() + size * 4);
+    }
+
+    static MonsterRoster read(ByteBuffer in) {
+        MonsterRoster roster = new MonsterRoster();
+        int speciesCount = in.getInt();
+        if (speciesCount < 0 || speciesCount > Short.MAX_VALUE + 1) {
+            throw new IllegalArgumentException("Bad species count " + speciesCount);
+        }
+        // Saved table index -> this run's registry id
+        short[] ids = new short[speciesCount];
+        for (int i = 0; i < speciesCount; i++) {
+            String name = getString(in);
+            String element = getString(in);
+            ids[i] = (short) SpeciesRegistry.shared().forName(name, Element.parse(element)).getId();
+        }
+        int size = in.getInt();
+        if (size < 0 || size > in.remaining() / 18) {
+            throw new IllegalArgumentException("Bad roster size " + size);
+        }
+        int capacity = Math.max(INITIAL_CAPACITY, size);
+        roster.species = new short[capacity];
+        roster.attack = new int[capacity];
+        roster.age = new short[capacity];
+        roster.weight = new short[capacity];
+        roster.hp = new int[capacity];
+        roster.maxHp = new int[capacity];
+        in.asShortBuffer().get(roster.species, 0, size);
+        in.position(in.position() + size * 2);
+        in.asIntBuffer().get(roster.attack, 0, size);
+        in.position(in.position() + size * 4);
+        in.asShortBuffer().get(roster.age, 0, size);
+        in.position(in.position() + size * 2);
+        in.asShortBuffer().get(roster.weight, 0, size);
+        in.position(in.position() + size * 2);
+        in.asIntBuffer().get(roster.hp, 0, size);
+        in.position(in.position() + size * 4);
+        in.asIntBuffer().get(roster.maxHp, 0, size);
+        in.position(in.position() + size * 4);
+        for (int i = 0; i < size; i++) {
+            if (roster.species[i] < 0 || roster.species[i] >= speciesCount) {
+                throw new IllegalArgumentException("Bad species id " + roster.species[i]);
+            }
+            roster.species[i] = ids[roster.species[i]];
+        }
+        roster.size = size;
+        return roster;
+    }
+
+    static void putString(ByteBuffer out, String value) {
+        byte[] bytes = utf8(value);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Age and weight are small (years, kg), so they are stored as shorts
+    private static short clampShort(int value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+    }
+}
@@ -0,0 +1,289 @@
+/**
+ * The walking part of the game, without any Swing: the avatar, its input and the encounter
+ * countdown, advanced one fixed step per {@link #tick}. Everything that affects a tick comes from
+ * the {@link InputQueue} (or a recording of it), the world seed and the session's
+ * {@link GameRandom}, so a session replays the same way with or without a window.
+ *
+ * {@link #tick} runs on the simulation thread; the position and status getters may be read
+ * from anywhere.
+ */
+public final class Overworld {
+
+    /** Called on the simulation thread; hand anything that touches Swing to the EDT. */
+    public interface Listener {
+        /** The avatar has stopped for a wild encounter in a zone; end it with {@link #battleOver}. */
+        void encounter(EncounterZone zone);
+
+        /** A one-shot key (inventory, boss) was pressed. */
+        void actionPressed(InputQueue.Action action);
+    }
+
+    public static final int AVATAR_SIZE = 32;
+
+    private final World world;
+    private final EncounterScheduler encounterScheduler;
+    private final Listener listener;
+    private final InputQueue input = new InputQueue();
+    private final InputQueue.Handler inputHandler = this::applyInput;
+
+    private volatile int avatarX;
+    private volatile int avatarY;
+    // Position at the start of the current tick, for render interpolation
+    private volatile int prevAvatarX;
+    private volatile int prevAvatarY;
+    private volatile InputQueue.Action facing = InputQueue.Action.UP;
+    private volatile int pixelsSinceLastBattle = 0;
+    private volatile EncounterZone zone;
+    private volatile boolean inBattle = false;
+    private boolean waitingForMoveAfterBattle = false;
+
+    private int heldActions = 0; // bit per InputQueue.Action
+    private int tappedActions = 0; // pressed at some point since the last tick
+    private long tickCount = 0;
+    private long encounters = 0;
+    private InputRecording recording;
+    private InputRecording replay; // replaces the queue while set
+    private volatile double avgInputLatencyNanos = 0;
+
+    public Overworld(World world, GameRandom random, int startX, int startY, Listener listener) {
+        this.world = world;
+        this.encounterScheduler = new EncounterScheduler(random.stream(GameRandom.ENCOUNTERS));
+        this.listener = listener;
+        this.avatarX = prevAvatarX = startX;
+        this.avatarY = prevAvatarY = startY;
+        world.update(startX + AVATAR_SIZE / 2, startY + AVATAR_SIZE / 2);
+        this.zone = zoneAt(startX, startY);
+    }
+
+    /** Where the EDT puts keys and battle starts/ends. */
+    public InputQueue getInput() {
+        return input;
+    }
+
+    /** Records every event the ticks consume, keyed by tick. Call before the first tick. */
+    public synchronized void record(InputRecording recording) {
+        this.recording = recording;
+    }
+
+    /** Takes input from a recording instead of the queue. Call before the first tick. */
+    public synchronized void replay(InputRecording replay) {
+        this.replay = replay;
+    }
+
+    /**
+     * Advances one fixed step: input, movement, collision and the encounter countdown.
+     * Synchronized so {@link #describe} sees a whole tick; nothing else contends for it.
+     */
+    public synchronized void tick() {
+        prevAvatarX = avatarX;
+        prevAvatarY = avatarY;
+        tickCount++;
+
+        // Apply everything that happened since the last tick, in order
+        if (replay != null) {
+            replay.play(tickCount, inputHandler);
+        } else {
+            input.drain(inputHandler);
+        }
+        int actions = heldActions | tappedActions;
+        tappedActions = 0;
+        boolean upPressed = isSet(actions, InputQueue.Action.UP);
+        boolean downPressed = isSet(actions, InputQueue.Action.DOWN);
+        boolean leftPressed = isSet(actions, InputQueue.Action.LEFT);
+        boolean rightPressed = isSet(actions, InputQueue.Action.RIGHT);
+        boolean shiftPressed = isSet(actions, InputQueue.Action.RUN);
+
+        // If in battle (regular or boss), nothing moves
+        if (inBattle) {
+            return;
+        }
+        // If waiting for move after battle and no movement keys are pressed, stay put
+        if (waitingForMoveAfterBattle && !upPressed && !downPressed && !leftPressed && !rightPressed) {
+            return;
+        }
+        // If waitingForMoveAfterBattle is true and a movement key is pressed, reset it
+        if (waitingForMoveAfterBattle) {
+            waitingForMoveAfterBattle = false;
+        }
+
+        int baseSpeed = 1;
+        int speed = shiftPressed ? baseSpeed * 4 : baseSpeed * 2;
+
+        boolean moved = false;
+        int prevX = avatarX;
+        int prevY = avatarY;
+        int x = avatarX;
+        int y = avatarY;
+
+        if (upPressed) {
+            y -= speed;
+            facing = InputQueue.Action.UP;
+            moved = true;
+        }
+        if (downPressed) {
+            y += speed;
+            facing = InputQueue.Action.DOWN;
+            moved = true;
+        }
+        if (leftPressed) {
+            x -= speed;
+            facing = InputQueue.Action.LEFT;
+            moved = true;
+        }
+        if (rightPressed) {
+            x += speed;
+            facing = InputQueue.Action.RIGHT;
+            moved = true;
+        }
+
+        // Collision check: avatar cannot walk on grass tiles
+        boolean collided = world.collides(x, y, AVATAR_SIZE, AVATAR_SIZE);
+
+        if (collided) {
+            x = prevX;
+            y = prevY;
+        }
+        avatarX = x;
+        avatarY = y;
+        if (moved) {
+            world.update(x + AVATAR_SIZE / 2, y + AVATAR_SIZE / 2);
+        }
+
+        if (moved && !collided) {
+            pixelsSinceLastBattle += speed;
+            EncounterZone here = zoneAt(x, y);
+            zone = here;
+            // The distance was drawn when the last encounter ended; this only counts it down
+            if (encounterScheduler.advance(speed, here.getWeight())) {
+                inBattle = true;
+                pixelsSinceLastBattle = 0;
+                encounters++;
+                encounterScheduler.reschedule();
+                listener.encounter(here);
+            }
+        }
+    }
+
+    /** The zone under the avatar's centre. */
+    private EncounterZone zoneAt(int x, int y) {
+        return world.getZone(Math.floorDiv(x + AVATAR_SIZE / 2, Chunk.TILE_SIZE),
+                Math.floorDiv(y + AVATAR_SIZE / 2, Chunk.TILE_SIZE));
+    }
+
+    private static boolean isSet(int actions, InputQueue.Action action) {
+        return (actions & 1 << action.ordinal()) != 0;
+    }
+
+    /** One input event, on the simulation thread. */
+    private void applyInput(long nanos, int code) {
+        if (recording != null) {
+            recording.add(tickCount, code);
+        }
+        long latency = System.nanoTime() - nanos;
+        avgInputLatencyNanos = avgInputLatencyNanos == 0 ? latency : avgInputLatencyNanos * 0.9 + latency * 0.1;
+        switch (code) {
+            case InputQueue.RELEASE_ALL:
+                heldActions = 0;
+                tappedActions = 0;
+                return;
+            case InputQueue.BATTLE_START:
+                inBattle = true;
+                return;
+            case InputQueue.BATTLE_OVER:
+                inBattle = false;
+                waitingForMoveAfterBattle = true; // Prevent immediate movement
+                heldActions = 0; // Clear any pending movement keys
+                tappedActions = 0;
+                return;
+            default:
+                break;
+        }
+        InputQueue.Action action = InputQueue.action(code);
+        int bit = 1 << action.ordinal();
+        if (!InputQueue.isPress(code)) {
+            heldActions &= ~bit;
+            return;
+        }
+        heldActions |= bit;
+        tappedActions |= bit;
+        switch (action) {
+            case UP:
+            case DOWN:
+            case LEFT:
+            case RIGHT:
+                facing = action;
+                break;
+            case INVENTORY:
+            case BOSS:
+                listener.actionPressed(action);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /** From the EDT: a battle is starting that the overworld didn't roll itself. */
+    public void battleStarted() {
+        input.battleStarted();
+    }
+
+    /** From the EDT: the battle (or the encounter that didn't become one) is over. */
+    public void battleOver() {
+        input.battleOver();
+    }
+
+    /** True from an encounter (or {@link #battleStarted}) until the tick that applies {@link #battleOver}. */
+    public boolean isInBattle() {
+        return inBattle;
+    }
+
+    public int getAvatarX() {
+        return avatarX;
+    }
+
+    public int getAvatarY() {
+        return avatarY;
+    }
+
+    public int getPrevAvatarX() {
+        return prevAvatarX;
+    }
+
+    public int getPrevAvatarY() {
+        return prevAvatarY;
+    }
+
+    /** The direction the avatar last moved or was turned to. */
+    public InputQueue.Action getFacing() {
+        return facing;
+    }
+
+    public int getPixelsSinceLastBattle() {
+        return pixelsSinceLastBattle;
+    }
+
+    /** The encounter zone the avatar is standing in. */
+    public EncounterZone getZone() {
+        return zone;
+    }
+
+    /** Pixels (at the normal zone weight) still to walk before the next encounter. */
+    public synchronized int getPixelsToNextEncounter() {
+        return encounterScheduler.getRemainingPixels();
+    }
+
+    /** How long input events wait in the queue before a tick applies them (smoothed). */
+    public double getAverageInputLatencyMillis() {
+        return avgInputLatencyNanos / 1_000_000.0;
+    }
+
+    /** Ticks, position and encounters so far, as of the end of a tick; equal strings mean equal runs. */
+    public synchronized String describe() {
+        return "tick " + tickCount + " at " + avatarX + "," + avatarY + " encounters " + encounters
+                + " pixels " + pixelsSinceLastBattle;
+    }
+
+    public synchronized long getTickCount() {
+        return tickCount;
+    }
+}
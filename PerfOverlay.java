@@ -0,0 +1,237 @@
+import java.awt.Color;
+import java.awt.Dialog;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Window;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * The F3 diagnostics panel: tick and paint time percentiles, how long events wait in the
+ * EDT queue, allocation rate, GC pauses, and how many tweens, timers and dialogs are live.
+ *
+ * Measurements go into {@link LatencyHistogram}s as they happen. The text is rebuilt only
+ * every {@link #SAMPLE_MILLIS} on the EDT, and drawing it is a handful of drawString calls,
+ * so showing the overlay barely moves the numbers it shows. While it is hidden only the
+ * histograms keep counting.
+ */
+public final class PerfOverlay {
+
+    private static final int SAMPLE_MILLIS = 500;
+    private static final int PROBE_MILLIS = 50;
+    private static final Font FONT = new Font("Monospaced", Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final LatencyHistogram paintTimes = new LatencyHistogram();
+    private final LatencyHistogram edtLatency = new LatencyHistogram();
+    private final LatencyHistogram gcPauses = new LatencyHistogram();
+    private final LatencyHistogram.Window tickWindow = tickTimes.window();
+    private final LatencyHistogram.Window paintWindow = paintTimes.window();
+    private final LatencyHistogram.Window edtWindow = edtLatency.window();
+    private final LatencyHistogram.Window gcWindow = gcPauses.window();
+
+    private final IntSupplier gameTimers;
+    private final Timer sampler = new Timer(SAMPLE_MILLIS, e -> sample());
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "EDT Probe");
+        t.setDaemon(true);
+        return t;
+    });
+    private ScheduledFuture<?> probe;
+
+    private volatile boolean visible = false;
+    private volatile String[] lines = { "Collecting..." };
+
+    private long lastSampleNanos;
+    private long lastAllocatedBytes = -1;
+    private long lastGcCount;
+    private long lastGcMillis;
+
+    /** @param gameTimers How many of the game's own Swing timers are running right now (EDT). */
+    public PerfOverlay(IntSupplier gameTimers) {
+        this.gameTimers = gameTimers;
+        sampler.setCoalesce(true);
+        listenForGcPauses();
+    }
+
+    /** Record each simulation tick here, from the thread that runs it. */
+    public LatencyHistogram getTickTimes() {
+        return tickTimes;
+    }
+
+    /** Record each frame's render time here, from the thread that renders. */
+    public LatencyHistogram getPaintTimes() {
+        return paintTimes;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /** Shows or hides the overlay. EDT only. */
+    public void toggle() {
+        visible = !visible;
+        if (visible) {
+            // Start every window from now, so the first numbers aren't the whole session
+            lastSampleNanos = System.nanoTime();
+            lastAllocatedBytes = allocatedBytes();
+            GarbageCollectorTotals gc = gcTotals();
+            lastGcCount = gc.count;
+            lastGcMillis = gc.millis;
+            tickWindow.update();
+            paintWindow.update();
+            edtWindow.update();
+            gcWindow.update();
+            lines = new String[] { "Collecting..." };
+            probe = prober.scheduleAtFixedRate(this::postProbe, 0, PROBE_MILLIS, TimeUnit.MILLISECONDS);
+            sampler.start();
+        } else {
+            sampler.stop();
+            if (probe != null) {
+                probe.cancel(false);
+                probe = null;
+            }
+        }
+    }
+
+    /** Posts a no-op to the EDT and records how long it queued. */
+    private void postProbe() {
+        long posted = System.nanoTime();
+        SwingUtilities.invokeLater(() -> edtLatency.record(System.nanoTime() - posted));
+    }
+
+    private void listenForGcPauses() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter)) continue;
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                // Only the JMX notification thread records, so the histogram keeps its single writer
+                gcPauses.record(info.getGcInfo().getDuration() * 1_000_000L);
+            }, null, null);
+        }
+    }
+
+    /** Rebuilds the text; on the EDT, every {@link #SAMPLE_MILLIS} while visible. */
+    private void sample() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - lastSampleNanos) / 1e9);
+        lastSampleNanos = now;
+        tickWindow.update();
+        paintWindow.update();
+        edtWindow.update();
+        gcWindow.update();
+
+        long allocated = allocatedBytes();
+        String allocation = allocated < 0 || lastAllocatedBytes < 0
+                ? "n/a" : String.format("%.1f MB/s", Math.max(0, allocated - lastAllocatedBytes) / seconds / 1e6);
+        lastAllocatedBytes = allocated;
+
+        GarbageCollectorTotals gc = gcTotals();
+        long collections = gc.count - lastGcCount;
+        long gcMillis = gc.millis - lastGcMillis;
+        lastGcCount = gc.count;
+        lastGcMillis = gc.millis;
+
+        Runtime runtime = Runtime.getRuntime();
+        long usedMb = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+        int dialogs = 0;
+        for (Window window : Window.getWindows()) {
+            if (window instanceof Dialog && window.isShowing()) {
+                dialogs++;
+            }
+        }
+
+        lines = new String[] {
+            String.format("tick   %s", percentiles(tickWindow, seconds)),
+            String.format("paint  %s", percentiles(paintWindow, seconds)),
+            String.format("EDT    %s", percentiles(edtWindow, seconds)),
+            String.format("alloc  %s  heap %d MB", allocation, usedMb),
+            String.format("GC     %d in %d ms  pause max %s", collections, gcMillis,
+                    gcWindow.getCount() == 0 ? "-" : millis(gcWindow.max())),
+            String.format("live   tweens %d  timers %d  dialogs %d  threads %d",
+                    Tweens.shared().getActiveCount(), gameTimers.getAsInt() + 1, dialogs, Thread.activeCount()),
+        };
+    }
+
+    private static String percentiles(LatencyHistogram.Window window, double seconds) {
+        if (window.getCount() == 0) {
+            return "-";
+        }
+        return String.format("p50 %s  p99 %s  max %s  (%.0f/s)", millis(window.percentile(0.50)),
+                millis(window.percentile(0.99)), millis(window.max()), window.getCount() / seconds);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f ms", nanos / 1e6);
+    }
+
+    /**
+     * Bytes allocated by all live threads so far, or -1 if the JVM can't say. Threads that
+     * ended since the last sample drop out of the sum, so the rate is a floor, not exact.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) threads;
+            if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+                long total = 0;
+                for (long bytes : sun.getThreadAllocatedBytes(sun.getAllThreadIds())) {
+                    total += Math.max(0, bytes); // -1 for threads that ended meanwhile
+                }
+                return total;
+            }
+        }
+        return -1;
+    }
+
+    private static final class GarbageCollectorTotals {
+        long count;
+        long millis;
+    }
+
+    private static GarbageCollectorTotals gcTotals() {
+        GarbageCollectorTotals totals = new GarbageCollectorTotals();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totals.count += Math.max(0, gc.getCollectionCount());
+            totals.millis += Math.max(0, gc.getCollectionTime());
+        }
+        return totals;
+    }
+
+    /** Draws the last sampled text with its top-right corner at (right, top), in screen pixels. Any thread. */
+    public void draw(Graphics2D g, int right, int top) {
+        if (!visible) return;
+        String[] text = lines;
+        g.setFont(FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        int width = 0;
+        for (String line : text) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+        int lineHeight = metrics.getHeight();
+        int x = right - width - 12;
+        int y = top;
+        g.setColor(BACKGROUND);
+        g.fillRect(x, y, width + 12, lineHeight * text.length + 8);
+        g.setColor(Color.GREEN);
+        for (int i = 0; i < text.length; i++) {
+            g.drawString(text[i], x + 6, y + 4 + metrics.getAscent() + i * lineHeight);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Everything that survives a restart: the world seed, where the avatar stands, coins,
+ * the battle counter and the monsters. Written and read by {@link SaveStore}.
+ */
+public final class SaveGame {
+
+    public final long worldSeed;
+    public final int avatarX;
+    public final int avatarY;
+    public final int coins;
+    public final int battlesWon;
+    public final MonsterRoster monsters;
+
+    public SaveGame(long worldSeed, int avatarX, int avatarY, int coins, int battlesWon, MonsterRoster monsters) {
+        this.worldSeed = worldSeed;
+        this.avatarX = avatarX;
+        this.avatarY = avatarY;
+        this.coins = coins;
+        this.battlesWon = battlesWon;
+        this.monsters = monsters;
+    }
+
+    @Override
+    public String toString() {
+        return "seed " + worldSeed + ", at " + avatarX + "," + avatarY + ", " + coins + " coins, "
+                + battlesWon + " battles won, " + monsters.size() + " monsters";
+    }
+}
@@ -0,0 +1,349 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Saves the game as a compact binary snapshot plus an append-only journal of what changed
+ * since. Small events (coins, a catch, a heal) cost one short record appended to the
+ * journal; {@link #writeSnapshot} folds everything back into a fresh snapshot and starts an
+ * empty journal. Restoring maps both files into memory and replays the journal, so even a
+ * very large roster loads with a few bulk copies.
+ *
+ * Snapshot: magic, version, generation, seed, position, coins, battles won, the roster
+ * column by column ({@link MonsterRoster#write}), CRC32 of all of the above.
+ * Journal: magic, version, generation, then records of type byte, payload, CRC32.
+ * A journal only applies to the snapshot with the same generation, so a crash between
+ * replacing the snapshot and resetting the journal can't replay events twice. Replay stops
+ * at the first torn or corrupt record.
+ */
+public final class SaveStore implements AutoCloseable {
+
+    private static final int SNAPSHOT_MAGIC = 0x4D445356; // "MDSV"
+    private static final int JOURNAL_MAGIC = 0x4D444A4C; // "MDJL"
+    private static final int FORMAT_VERSION = 1;
+    private static final int JOURNAL_HEADER_BYTES = 16;
+    private static final long COMPACT_AFTER_BYTES = 256 * 1024; // journal size that makes a new snapshot worthwhile
+
+    // Journal record types
+    private static final byte COINS = 1;
+    private static final byte BATTLES_WON = 2;
+    private static final byte POSITION = 3;
+    private static final byte CATCH = 4;
+    private static final byte HP = 5;
+    private static final byte HEAL_ALL = 6;
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final ByteBuffer record = ByteBuffer.allocate(1024);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel journal; // open for appending once a snapshot exists
+    private long generation = 0;
+    private long journalBytes = 0;
+    private long recordsReplayed = 0;
+
+    public SaveStore(File directory) {
+        this.snapshotFile = new File(directory, "save.snapshot").toPath();
+        this.journalFile = new File(directory, "save.journal").toPath();
+    }
+
+    /**
+     * Reads the snapshot and replays the journal on top of it, then opens the journal for
+     * appending.
+     * @return The saved game, or null if there is no save yet.
+     * @throws IOException If the snapshot exists but can't be read.
+     */
+    public synchronized SaveGame load() throws IOException {
+        if (!Files.isRegularFile(snapshotFile)) {
+            return null;
+        }
+        SaveGame game;
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            game = readSnapshot(in);
+        }
+
+        long validJournalBytes = 0;
+        if (Files.isRegularFile(journalFile)) {
+            try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+                if (channel.size() >= JOURNAL_HEADER_BYTES) {
+                    MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    if (in.getInt() == JOURNAL_MAGIC && in.getInt() == FORMAT_VERSION && in.getLong() == generation) {
+                        game = replay(in, game);
+                        validJournalBytes = in.position();
+                    }
+                }
+            }
+        }
+        openJournal(validJournalBytes);
+        return game;
+    }
+
+    /**
+     * Writes a complete snapshot (to a temporary file, synced, then moved over the old one)
+     * and starts an empty journal for it.
+     * @return The size of the snapshot in bytes.
+     */
+    public synchronized int writeSnapshot(SaveGame game) throws IOException {
+        int rosterBytes = game.monsters.serializedSize();
+        ByteBuffer out = ByteBuffer.allocate(48 + rosterBytes + 4);
+        long nextGeneration = generation + 1;
+        out.putInt(SNAPSHOT_MAGIC);
+        out.putInt(FORMAT_VERSION);
+        out.putLong(nextGeneration);
+        out.putLong(game.worldSeed);
+        out.putInt(game.avatarX);
+        out.putInt(game.avatarY);
+        out.putInt(game.coins);
+        out.putInt(game.battlesWon);
+        game.monsters.write(out);
+        crc.reset();
+        crc.update(out.array(), 0, out.position());
+        out.putInt((int) crc.getValue());
+        out.flip();
+        int bytes = out.remaining();
+
+        Files.createDirectories(snapshotFile.getParent());
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation = nextGeneration;
+        openJournal(0);
+        return bytes;
+    }
+
+    public void appendCoins(int coins) {
+        append(COINS, coins, 0);
+    }
+
+    public void appendBattlesWon(int battlesWon) {
+        append(BATTLES_WON, battlesWon, 0);
+    }
+
+    public void appendPosition(int avatarX, int avatarY) {
+        append(POSITION, avatarX, avatarY);
+    }
+
+    /** Records the current HP of the monster in a roster slot (after a battle or a heal). */
+    public void appendHp(int rosterIndex, int hp) {
+        append(HP, rosterIndex, hp);
+    }
+
+    public void appendHealAll() {
+        append(HEAL_ALL, 0, 0);
+    }
+
+    /** Records a monster joining the end of the roster. */
+    public synchronized void appendCatch(Monster monster) {
+        record.clear();
+        record.put(CATCH);
+        MonsterRoster.putString(record, monster.getName());
+        MonsterRoster.putString(record, monster.getElement().getDisplayName());
+        record.putInt(monster.getAttack());
+        record.putInt(monster.getAge());
+        record.putInt(monster.getWeight());
+        record.putInt(monster.getHp());
+        record.putInt(monster.getMaxHealth());
+        writeRecord();
+    }
+
+    /** True once the journal has grown enough that a fresh snapshot would load faster. */
+    public synchronized boolean needsCompaction() {
+        return journalBytes > COMPACT_AFTER_BYTES;
+    }
+
+    /** Flushes appended records to the disk itself, not just the OS cache. */
+    public synchronized void sync() throws IOException {
+        if (journal != null) {
+            journal.force(false);
+        }
+    }
+
+    public synchronized long getJournalBytes() {
+        return journalBytes;
+    }
+
+    public synchronized long getRecordsReplayed() {
+        return recordsReplayed;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            journal.force(false);
+            journal.close();
+            journal = null;
+        }
+    }
+
+    private synchronized void append(byte type, int a, int b) {
+        record.clear();
+        record.put(type);
+        if (type != HEAL_ALL) {
+            record.putInt(a);
+        }
+        if (type == POSITION || type == HP) {
+            record.putInt(b);
+        }
+        writeRecord();
+    }
+
+    private void writeRecord() {
+        if (journal == null) {
+            return; // No snapshot yet, so there is nothing for the record to apply to
+        }
+        crc.reset();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                journalBytes += journal.write(record);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not append to the save journal: " + e.getMessage());
+        }
+    }
+
+    private void openJournal(long validBytes) throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+        Files.createDirectories(journalFile.getParent());
+        journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (validBytes < JOURNAL_HEADER_BYTES) {
+            ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_BYTES);
+            header.putInt(JOURNAL_MAGIC).putInt(FORMAT_VERSION).putLong(generation).flip();
+            journal.truncate(0);
+            journal.write(header, 0);
+            journal.force(false);
+            validBytes = JOURNAL_HEADER_BYTES;
+        } else {
+            journal.truncate(validBytes); // Drop a torn record left by a crash
+        }
+        journal.position(validBytes);
+        journalBytes = validBytes;
+    }
+
+    private SaveGame readSnapshot(ByteBuffer in) throws IOException {
+        if (in.limit() < 52) {
+            throw new IOException("Save snapshot is truncated");
+        }
+        crc.reset();
+        ByteBuffer body = in.duplicate();
+        body.limit(in.limit() - 4);
+        crc.update(body);
+        if ((int) crc.getValue() != in.getInt(in.limit() - 4)) {
+            throw new IOException("Save snapshot is corrupt (checksum mismatch)");
+        }
+        if (in.getInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a save snapshot");
+        }
+        int version = in.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported save format " + version);
+        }
+        generation = in.getLong();
+        long seed = in.getLong();
+        int avatarX = in.getInt();
+        int avatarY = in.getInt();
+        int coins = in.getInt();
+        int battlesWon = in.getInt();
+        MonsterRoster monsters;
+        try {
+            monsters = MonsterRoster.read(in);
+        } catch (RuntimeException e) {
+            throw new IOException("Save snapshot has a bad roster: " + e.getMessage(), e);
+        }
+        return new SaveGame(seed, avatarX, avatarY, coins, battlesWon, monsters);
+    }
+
+    /** Applies journal records until the end or the first damaged one; leaves {@code in} after the last good record. */
+    private SaveGame replay(ByteBuffer in, SaveGame game) {
+        long seed = game.worldSeed;
+        int avatarX = game.avatarX;
+        int avatarY = game.avatarY;
+        int coins = game.coins;
+        int battlesWon = game.battlesWon;
+        MonsterRoster monsters = game.monsters;
+        recordsReplayed = 0;
+
+        while (in.hasRemaining()) {
+            int start = in.position();
+            try {
+                byte type = in.get();
+                int a = 0;
+                int b = 0;
+                Monster caught = null;
+                switch (type) {
+                    case COINS:
+                    case BATTLES_WON:
+                        a = in.getInt();
+                        break;
+                    case POSITION:
+                    case HP:
+                        a = in.getInt();
+                        b = in.getInt();
+                        break;
+                    case HEAL_ALL:
+                        break;
+                    case CATCH:
+                        String name = MonsterRoster.getString(in);
+                        String element = MonsterRoster.getString(in);
+                        int attack = in.getInt();
+                        int age = in.getInt();
+                        int weight = in.getInt();
+                        int hp = in.getInt();
+                        int maxHp = in.getInt();
+                        caught = new Monster(name, element, attack, age, weight, maxHp);
+                        caught.setHp(hp);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown record type " + type);
+                }
+                int end = in.position();
+                crc.reset();
+                ByteBuffer body = in.duplicate();
+                body.position(start).limit(end);
+                crc.update(body);
+                if (in.getInt() != (int) crc.getValue()) {
+                    throw new IllegalStateException("Checksum mismatch");
+                }
+
+                switch (type) {
+                    case COINS: coins = a; break;
+                    case BATTLES_WON: battlesWon = a; break;
+                    case POSITION: avatarX = a; avatarY = b; break;
+                    case HP:
+                        if (a >= 0 && a < monsters.size()) {
+                            monsters.get(a).setHp(b);
+                        }
+                        break;
+                    case HEAL_ALL: monsters.healAll(); break;
+                    case CATCH: monsters.add(caught); break;
+                }
+                recordsReplayed++;
+            } catch (RuntimeException e) {
+                // Torn write or corruption: everything before this record is still good
+                System.err.println("Save journal ends early at byte " + start + ": " + e);
+                in.position(start);
+                break;
+            }
+        }
+        return new SaveGame(seed, avatarX, avatarY, coins, battlesWon, monsters);
+    }
+}
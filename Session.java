@@ -0,0 +1,236 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.SplittableRandom;
+import java.util.zip.CRC32;
+
+/**
+ * A recorded play session: the seeds and the state it began with, the input the overworld
+ * consumed tick by tick, what the player did in battles and the Inventory, and where it
+ * ended. {@link #replayHeadless} runs the same ticks with no window and no frame pacing,
+ * fights the battles again through {@link BattleEngine} and checks that the overworld,
+ * coins, battle counter and every monster end up the same.
+ *
+ * Text file: a header of {@code key value} lines, then {@code battles} and the battle actions
+ * ({@link BattleRecording}), then {@code input} and the input events ({@link InputRecording}).
+ */
+public final class Session {
+
+    private static final String HEADER = "# Monster Dudes session v2";
+
+    public final long sessionSeed;
+    /** World seed, position, coins, battle counter and roster the session started with. */
+    public final SaveGame start;
+    public final InputRecording input;
+    public final BattleRecording battles;
+    private long endTick;
+    private String endState;
+
+    public Session(long sessionSeed, SaveGame start, InputRecording input, BattleRecording battles) {
+        this.sessionSeed = sessionSeed;
+        this.start = start;
+        this.input = input;
+        this.battles = battles;
+    }
+
+    /**
+     * Notes where the recorded run stopped, for the replay to compare against. Call it on the
+     * thread that owns the roster, once the overworld has stopped ticking.
+     */
+    public void end(Overworld overworld, int coins, int battlesWon, MonsterRoster monsters) {
+        endTick = overworld.getTickCount();
+        endState = describe(overworld, coins, battlesWon, monsters);
+    }
+
+    public long getEndTick() {
+        return endTick;
+    }
+
+    public String getEndState() {
+        return endState;
+    }
+
+    public void save(File file) throws IOException {
+        ByteBuffer roster = ByteBuffer.allocate(start.monsters.serializedSize());
+        start.monsters.write(roster);
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println(HEADER);
+            out.println("sessionSeed " + sessionSeed);
+            out.println("worldSeed " + start.worldSeed);
+            out.println("start " + start.avatarX + " " + start.avatarY);
+            out.println("coins " + start.coins);
+            out.println("battlesWon " + start.battlesWon);
+            out.println("roster " + Base64.getEncoder().encodeToString(roster.array()));
+            out.println("endTick " + endTick);
+            out.println("endState " + endState);
+            out.println("battles");
+            battles.write(out);
+            out.println("input");
+            input.write(out);
+        }
+    }
+
+    public static Session load(File file) throws IOException {
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            if (!HEADER.equals(in.readLine())) {
+                throw new IOException(file + " is not a session recording from this version");
+            }
+            long sessionSeed = 0;
+            long worldSeed = 0;
+            int startX = 0;
+            int startY = 0;
+            int coins = 0;
+            int battlesWon = 0;
+            MonsterRoster monsters = new MonsterRoster();
+            long endTick = 0;
+            String endState = null;
+            String line;
+            while ((line = in.readLine()) != null && !line.equals("battles")) {
+                int space = line.indexOf(' ');
+                String key = space < 0 ? line : line.substring(0, space);
+                String value = space < 0 ? "" : line.substring(space + 1);
+                try {
+                    switch (key) {
+                        case "sessionSeed": sessionSeed = Long.parseLong(value); break;
+                        case "worldSeed": worldSeed = Long.parseLong(value); break;
+                        case "start":
+                            String[] xy = value.split(" ");
+                            startX = Integer.parseInt(xy[0]);
+                            startY = Integer.parseInt(xy[1]);
+                            break;
+                        case "coins": coins = Integer.parseInt(value); break;
+                        case "battlesWon": battlesWon = Integer.parseInt(value); break;
+                        case "roster": monsters = MonsterRoster.read(ByteBuffer.wrap(Base64.getDecoder().decode(value))); break;
+                        case "endTick": endTick = Long.parseLong(value); break;
+                        case "endState": endState = value; break;
+                        default: break; // Unknown keys from newer versions are skipped
+                    }
+                } catch (RuntimeException e) {
+                    throw new IOException(file + ": can't read \"" + line + "\"", e);
+                }
+            }
+            BattleRecording battles = BattleRecording.read(in, "input");
+            SaveGame start = new SaveGame(worldSeed, startX, startY, coins, battlesWon, monsters);
+            Session session = new Session(sessionSeed, start, InputRecording.read(in), battles);
+            session.endTick = endTick;
+            session.endState = endState;
+            return session;
+        }
+    }
+
+    /**
+     * Runs the recorded ticks back to back without a window, fighting each recorded battle
+     * after the tick it happened on, and returns the final state.
+     */
+    public String replayHeadless() {
+        try (World world = new World(start.worldSeed)) {
+            GameRandom random = new GameRandom(sessionSeed);
+            BattleReplay replay = new BattleReplay(random, start);
+            Overworld overworld = new Overworld(world, random, start.avatarX, start.avatarY,
+                    new Overworld.Listener() {
+                        @Override
+                        public void encounter(EncounterZone zone) {
+                            replay.zone = zone; // The recorded WILD action starts the battle
+                        }
+
+                        @Override
+                        public void actionPressed(InputQueue.Action action) {
+                            // The recorded BOSS action starts his battle
+                        }
+                    });
+            overworld.replay(input);
+            battles.play(0, replay);
+            while (overworld.getTickCount() < endTick) {
+                overworld.tick();
+                battles.play(overworld.getTickCount(), replay);
+            }
+            return describe(overworld, replay.coins, replay.battlesWon, replay.party);
+        }
+    }
+
+    /** The end state both runs are compared by: the overworld, coins, battle counter and a checksum of every monster. */
+    static String describe(Overworld overworld, int coins, int battlesWon, MonsterRoster monsters) {
+        CRC32 crc = new CRC32();
+        ByteBuffer stats = ByteBuffer.allocate(20);
+        for (Monster monster : monsters) {
+            crc.update(monster.getName().getBytes(StandardCharsets.UTF_8));
+            stats.clear();
+            stats.putInt(monster.getAttack()).putInt(monster.getAge()).putInt(monster.getWeight())
+                    .putInt(monster.getHp()).putInt(monster.getMaxHealth());
+            crc.update(stats.array());
+        }
+        return overworld.describe() + " | coins " + coins + " battles " + battlesWon + " party " + monsters.size()
+                + " (" + monsters.countAvailable() + " able) roster " + Long.toHexString(crc.getValue());
+    }
+
+    /** Plays recorded battle actions the way the Battle, BossBattle and Inventory dialogs did. */
+    private static final class BattleReplay implements BattleRecording.Player {
+        private final GameRandom random;
+        private final MonsterRoster party;
+        private int coins;
+        private int battlesWon;
+        private EncounterZone zone; // of the latest encounter
+        private BattleEngine engine; // the battle in progress, if any
+
+        BattleReplay(GameRandom random, SaveGame start) {
+            this.random = random;
+            this.party = start.monsters.snapshot(); // The session keeps its starting roster
+            this.coins = start.coins;
+            this.battlesWon = start.battlesWon;
+        }
+
+        @Override
+        public void play(BattleRecording.Action action, int a, int b) {
+            switch (action) {
+                case WILD:
+                    // Same draws in the same order as the Battle dialog
+                    SplittableRandom battleRandom = random.stream(GameRandom.WILD_BATTLES);
+                    Species species = zone.rollSpecies(battleRandom);
+                    engine = species == null
+                            ? BattleEngine.wild(party, party.get(a), battleRandom)
+                            : BattleEngine.wild(party, party.get(a), battleRandom, BattleRules.DEFAULT, species);
+                    break;
+                case BOSS:
+                    party.healAll();
+                    engine = BattleEngine.boss(party, random.stream(GameRandom.BOSS_BATTLES));
+                    break;
+                case ATTACK:
+                case BOSS_TURN:
+                    BattleEngine.TurnResult turn = action == BattleRecording.Action.ATTACK
+                            ? engine.performTurn() : engine.performTurn(BossMove.values()[a]);
+                    if (turn.isEnemyDefeated()) {
+                        coins += turn.getCoinsAwarded();
+                    }
+                    break;
+                case SWITCH:
+                    engine.setActive(party.get(a));
+                    break;
+                case RUN:
+                    engine.flee();
+                    break;
+                case CATCH:
+                    engine.attemptCatch();
+                    break;
+                case END:
+                    // As Game.battleEnded counts it
+                    if (engine.getKind() == BattleEngine.Kind.BOSS) {
+                        battlesWon = 0;
+                    } else if (engine.getOutcome() == BattleEngine.Outcome.PLAYER_WON) {
+                        battlesWon++;
+                    }
+                    engine = null;
+                    break;
+                case HEAL:
+                    party.get(a).heal(b);
+                    coins -= b / 5;
+                    break;
+            }
+        }
+    }
+}
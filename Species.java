@@ -0,0 +1,74 @@
+/**
+ * One kind of monster: its name, element, base stats and sprite. There is a single shared,
+ * immutable instance per species, handed out by {@link SpeciesRegistry}; monsters point at
+ * it (or, in a {@link MonsterRoster}, store its id) instead of carrying their own strings.
+ */
+public final class Species {
+
+    private final int id;
+    private final String name;
+    private final Element element;
+    private final int baseHp;
+    private final int baseAttack;
+    private final int baseAge;
+    private final int baseWeight;
+    private final String spritePath;
+    private final boolean wild;
+
+    Species(int id, String name, Element element, int baseHp, int baseAttack, int baseAge, int baseWeight,
+            String spritePath, boolean wild) {
+        this.id = id;
+        this.name = name;
+        this.element = element;
+        this.baseHp = baseHp;
+        this.baseAttack = baseAttack;
+        this.baseAge = baseAge;
+        this.baseWeight = baseWeight;
+        this.spritePath = spritePath;
+        this.wild = wild;
+    }
+
+    /** Small, dense and stable for the life of the process (not across runs). */
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Element getElement() {
+        return element;
+    }
+
+    public int getBaseHp() {
+        return baseHp;
+    }
+
+    public int getBaseAttack() {
+        return baseAttack;
+    }
+
+    public int getBaseAge() {
+        return baseAge;
+    }
+
+    public int getBaseWeight() {
+        return baseWeight;
+    }
+
+    /** Asset path of the sprite, e.g. "/Game Items/snorb.png", for {@link SpriteCache} and {@link AssetLoader}. */
+    public String getSpritePath() {
+        return spritePath;
+    }
+
+    /** Whether it can turn up in the overworld. */
+    public boolean isWild() {
+        return wild;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,145 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every {@link Species} the game knows, read once from "Game Items/species.txt".
+ * Lookups by id are an array read and by name a hash lookup; neither allocates.
+ *
+ * Names that aren't in the file (from an old save, say) are added on first use with
+ * default stats, so loading never fails over a species that was since removed. Ids are
+ * only ever appended, so any id handed out stays valid.
+ */
+public final class SpeciesRegistry {
+
+    static final String DATA_PATH = "/Game Items/species.txt";
+
+    private static final SpeciesRegistry SHARED = load(DATA_PATH);
+
+    // Copy-on-write so readers on any thread never lock
+    private volatile Species[] byId = new Species[0];
+    private final Map<String, Species> byName = new ConcurrentHashMap<>();
+    private final Species[] wild;
+
+    private SpeciesRegistry(List<String[]> rows, String source) {
+        List<Species> wildSpecies = new ArrayList<>();
+        for (String[] row : rows) {
+            Species species = add(row, source);
+            if (species.isWild()) {
+                wildSpecies.add(species);
+            }
+        }
+        this.wild = wildSpecies.toArray(new Species[0]);
+    }
+
+    public static SpeciesRegistry shared() {
+        return SHARED;
+    }
+
+    public Species get(int id) {
+        return byId[id];
+    }
+
+    /** @return The species, or null if there is none by that name. */
+    public Species forName(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * The species called {@code name}, added with this element and default stats if it
+     * isn't known yet. An existing species keeps its own element.
+     */
+    public Species forName(String name, Element element) {
+        Species species = byName.get(name);
+        return species != null ? species : addUnknown(name, element);
+    }
+
+    public int size() {
+        return byId.length;
+    }
+
+    /** The species that turn up in the overworld, in file order. Don't modify it. */
+    Species[] wildSpecies() {
+        return wild;
+    }
+
+    private synchronized Species addUnknown(String name, Element element) {
+        Species species = byName.get(name);
+        if (species == null) {
+            species = append(new Species(byId.length, name, element, 100, 10, 1, 50,
+                    "/Game Items/" + name.toLowerCase() + ".png", false));
+            System.err.println("Unknown species \"" + name + "\"; added with default stats");
+        }
+        return species;
+    }
+
+    private Species add(String[] row, String source) {
+        if (row.length != 8) {
+            throw new IllegalStateException(source + ": expected 8 columns, got " + String.join(", ", row));
+        }
+        if (byName.containsKey(row[0])) {
+            throw new IllegalStateException(source + ": species " + row[0] + " is listed twice");
+        }
+        Element element = Element.forName(row[1]);
+        if (element == null) {
+            throw new IllegalStateException(source + ": unknown element " + row[1] + " for species " + row[0]);
+        }
+        try {
+            return append(new Species(byId.length, row[0], element, Integer.parseInt(row[2]),
+                    Integer.parseInt(row[3]), Integer.parseInt(row[4]), Integer.parseInt(row[5]),
+                    "/Game Items/" + row[6], row[7].equals("yes")));
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(source + ": bad number for species " + row[0], e);
+        }
+    }
+
+    private synchronized Species append(Species species) {
+        if (species.getId() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct species"); // rosters store ids as shorts
+        }
+        Species[] grown = Arrays.copyOf(byId, byId.length + 1);
+        grown[species.getId()] = species;
+        byName.put(species.getName(), species);
+        byId = grown;
+        return species;
+    }
+
+    private static SpeciesRegistry load(String path) {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(open(path), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                rows.add(line.split("\\s*,\\s*"));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + path + ": " + e.getMessage(), e);
+        }
+        return new SpeciesRegistry(rows, path);
+    }
+
+    private static InputStream open(String path) throws IOException {
+        // Classpath first (works from a JAR), then the working directory, as for sprites
+        InputStream in = SpeciesRegistry.class.getResourceAsStream(path);
+        if (in != null) {
+            return in;
+        }
+        File file = new File(path.substring(1));
+        if (!file.exists()) {
+            throw new IOException("not found");
+        }
+        return new FileInputStream(file);
+    }
+}
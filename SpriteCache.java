@@ -0,0 +1,304 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.imageio.ImageIO;
+
+/**
+ * Shared cache of decoded and pre-scaled sprites.
+ * Each PNG in "Game Items/" is decoded once, and every (path, size, scale) variant
+ * is kept as a display-compatible BufferedImage so drawing it is a straight blit.
+ */
+public final class SpriteCache {
+
+    private static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024; // 32 MB of pixels
+
+    private static final SpriteCache SHARED = new SpriteCache(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;
+    private long currentBytes = 0;
+
+    // Access-ordered map gives us LRU iteration order for eviction
+    private final LinkedHashMap<Key, BufferedImage> scaled = new LinkedHashMap<>(64, 0.75f, true);
+    // Decoded originals, so a new size of a known sprite never touches the disk again
+    private final LinkedHashMap<String, BufferedImage> decoded = new LinkedHashMap<>(32, 0.75f, true);
+
+    private long hits = 0;
+    private long misses = 0;
+    private long decodes = 0;
+    private long evictions = 0;
+
+    public SpriteCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static SpriteCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the sprite at the given path scaled to width x height (times scaleFactor).
+     * Decoding and scaling happen outside the cache lock, so a slow load on one thread
+     * never stalls {@link #peek} on another.
+     * @param path Asset path, e.g. "/Game Items/snorb.png".
+     * @return The cached image, or null if the asset could not be read.
+     */
+    public BufferedImage get(String path, int width, int height, double scaleFactor) {
+        Key key = new Key(normalize(path), width, height, scaleFactor);
+        BufferedImage source;
+        synchronized (this) {
+            BufferedImage image = scaled.get(key);
+            if (image != null) {
+                hits++;
+                return image;
+            }
+            misses++;
+            source = decoded.get(key.path);
+        }
+
+        if (source == null) {
+            source = decode(key.path);
+            if (source == null) {
+                return null;
+            }
+        }
+        int targetW = Math.max(1, (int) Math.round(width * scaleFactor));
+        int targetH = Math.max(1, (int) Math.round(height * scaleFactor));
+        BufferedImage image = scale(source, targetW, targetH);
+
+        synchronized (this) {
+            // Another thread may have built the same variant meanwhile; keep the first one
+            BufferedImage existing = scaled.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            scaled.put(key, image);
+            currentBytes += sizeOf(image);
+            evictIfNeeded();
+        }
+        return image;
+    }
+
+    /** The sprite if it is already cached, otherwise null. Never touches the disk. */
+    public synchronized BufferedImage peek(String path, int width, int height, double scaleFactor) {
+        BufferedImage image = scaled.get(new Key(normalize(path), width, height, scaleFactor));
+        if (image != null) {
+            hits++;
+        }
+        return image;
+    }
+
+    public BufferedImage get(String path, int width, int height) {
+        return get(path, width, height, 1.0);
+    }
+
+    /** Convenience for monster sprites; the path comes from the {@link SpeciesRegistry}. */
+    public BufferedImage getMonster(String monsterName, int size) {
+        return get(monsterPath(monsterName), size, size, 1.0);
+    }
+
+    public static String monsterPath(String monsterName) {
+        Species species = SpeciesRegistry.shared().forName(monsterName);
+        return species != null ? species.getSpritePath() : "/Game Items/" + monsterName.toLowerCase() + ".png";
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getDecodes() {
+        return decodes;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized void clear() {
+        scaled.clear();
+        decoded.clear();
+        currentBytes = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SpriteCache[hits=" + hits + ", misses=" + misses + ", decodes=" + decodes
+                + ", evictions=" + evictions + ", bytes=" + currentBytes + "/" + maxBytes + "]";
+    }
+
+    private BufferedImage decode(String path) {
+        FlightEvents.SpriteDecode event = new FlightEvents.SpriteDecode();
+        event.begin();
+        BufferedImage image = readCompatible(path);
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.succeeded = image != null;
+            if (image != null) {
+                event.width = image.getWidth();
+                event.height = image.getHeight();
+                event.bytes = sizeOf(image);
+            }
+            event.commit();
+        }
+        if (image == null) {
+            return null;
+        }
+        synchronized (this) {
+            BufferedImage existing = decoded.get(path);
+            if (existing != null) {
+                return existing;
+            }
+            decodes++;
+            decoded.put(path, image);
+            currentBytes += sizeOf(image);
+            evictIfNeeded();
+        }
+        return image;
+    }
+
+    /** Reads and converts an image, or logs why it couldn't and returns null. */
+    private BufferedImage readCompatible(String path) {
+        BufferedImage image;
+        try {
+            image = read(path);
+        } catch (IOException e) {
+            System.err.println("Error loading sprite " + path + ": " + e.getMessage());
+            return null;
+        }
+        if (image == null) {
+            System.err.println("Error loading sprite " + path + ": unsupported format");
+            return null;
+        }
+        return toCompatible(image, image.getWidth(), image.getHeight());
+    }
+
+    private BufferedImage read(String path) throws IOException {
+        // Classpath first (works from a JAR), then the working directory
+        InputStream in = SpriteCache.class.getResourceAsStream(path);
+        if (in != null) {
+            try (InputStream stream = in) {
+                return ImageIO.read(stream);
+            }
+        }
+        File file = new File(path.substring(1));
+        if (!file.exists()) {
+            throw new IOException("not found");
+        }
+        return ImageIO.read(file);
+    }
+
+    private void evictIfNeeded() {
+        // Drop scaled variants first; they can be rebuilt from the decoded original without IO
+        var it = scaled.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, BufferedImage> eldest = it.next();
+            currentBytes -= sizeOf(eldest.getValue());
+            it.remove();
+            evictions++;
+        }
+        var decodedIt = decoded.entrySet().iterator();
+        while (currentBytes > maxBytes && decodedIt.hasNext()) {
+            Map.Entry<String, BufferedImage> eldest = decodedIt.next();
+            currentBytes -= sizeOf(eldest.getValue());
+            decodedIt.remove();
+            evictions++;
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int targetW, int targetH) {
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        // Halve in steps when shrinking a lot; a single bilinear pass looks blocky
+        do {
+            if (w > targetW) {
+                w = Math.max(targetW, w / 2);
+            } else {
+                w = targetW;
+            }
+            if (h > targetH) {
+                h = Math.max(targetH, h / 2);
+            } else {
+                h = targetH;
+            }
+            BufferedImage step = createCompatible(w, h);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = step;
+        } while (w != targetW || h != targetH);
+        return current;
+    }
+
+    private static BufferedImage toCompatible(BufferedImage source, int w, int h) {
+        BufferedImage copy = createCompatible(w, h);
+        Graphics2D g = copy.createGraphics();
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+
+    private static BufferedImage createCompatible(int w, int h) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return gc.createCompatibleImage(w, h, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    private static String normalize(String path) {
+        return path.startsWith("/") ? path : "/" + path;
+    }
+
+    private static final class Key {
+        final String path;
+        final int width;
+        final int height;
+        final long scaleBits;
+
+        Key(String path, int width, int height, double scaleFactor) {
+            this.path = path;
+            this.width = width;
+            this.height = height;
+            this.scaleBits = Double.doubleToLongBits(scaleFactor);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return width == other.width && height == other.height
+                    && scaleBits == other.scaleBits && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, width, height, scaleBits);
+        }
+    }
+}
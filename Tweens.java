@@ -0,0 +1,132 @@
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
+import javax.swing.JProgressBar;
+import javax.swing.Timer;
+
+/**
+ * One animation scheduler for the whole UI. All running tweens are stepped together by a
+ * single Swing timer, which only runs while something is animating. A target has at most
+ * one tween: starting another on it takes over from wherever the old one had got to,
+ * instead of two animations fighting over the same component.
+ *
+ * EDT only.
+ */
+public final class Tweens {
+
+    /** Maps linear progress in [0, 1] to eased progress. */
+    @FunctionalInterface
+    public interface Easing {
+        double apply(double t);
+    }
+
+    public static final Easing LINEAR = t -> t;
+    public static final Easing EASE_OUT_CUBIC = t -> 1 - Math.pow(1 - t, 3);
+    public static final Easing EASE_IN_OUT_QUAD = t -> t < 0.5 ? 2 * t * t : 1 - Math.pow(-2 * t + 2, 2) / 2;
+
+    private static final int FRAME_MILLIS = 16;
+    // HP bars used to move one point every 10 ms; keep that feel, within limits
+    private static final int BAR_MILLIS_PER_UNIT = 10;
+    private static final int BAR_MIN_MILLIS = 80;
+    private static final int BAR_MAX_MILLIS = 600;
+
+    private static final Tweens SHARED = new Tweens();
+
+    private final Map<Object, Tween> active = new IdentityHashMap<>();
+    private final Timer timer = new Timer(FRAME_MILLIS, e -> step());
+    private long tweensStarted = 0;
+
+    private static final class Tween {
+        final double from;
+        final double to;
+        final long startNanos;
+        final long durationNanos;
+        final Easing easing;
+        final DoubleConsumer setter;
+
+        Tween(double from, double to, long durationMillis, Easing easing, DoubleConsumer setter) {
+            this.from = from;
+            this.to = to;
+            this.startNanos = System.nanoTime();
+            this.durationNanos = Math.max(1, durationMillis) * 1_000_000L;
+            this.easing = easing;
+            this.setter = setter;
+        }
+    }
+
+    private Tweens() {
+        timer.setCoalesce(true);
+    }
+
+    public static Tweens shared() {
+        return SHARED;
+    }
+
+    /**
+     * Animates a value from {@code from} to {@code to}, calling {@code setter} every frame.
+     * Replaces any tween already running on {@code target}.
+     * @param target Identifies what is being animated, usually the component.
+     */
+    public void animate(Object target, double from, double to, long durationMillis, Easing easing, DoubleConsumer setter) {
+        active.put(target, new Tween(from, to, durationMillis, easing, setter));
+        tweensStarted++;
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Slides a progress bar to a new value. Asking again for the value it is already heading
+     * to leaves the running tween alone; a different value restarts from where the bar is now.
+     */
+    public void animateBar(JProgressBar bar, int targetValue) {
+        Tween running = active.get(bar);
+        if (running != null && running.to == targetValue) {
+            return;
+        }
+        int current = bar.getValue();
+        if (running == null && current == targetValue) {
+            return;
+        }
+        long duration = Math.max(BAR_MIN_MILLIS,
+                Math.min(BAR_MAX_MILLIS, (long) Math.abs(targetValue - current) * BAR_MILLIS_PER_UNIT));
+        animate(bar, current, targetValue, duration, EASE_OUT_CUBIC, v -> bar.setValue((int) Math.round(v)));
+    }
+
+    /** Stops the tween on a target where it is. */
+    public void cancel(Object target) {
+        active.remove(target);
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    /** Whether the shared timer is running (it stops when nothing animates). */
+    public boolean isTimerRunning() {
+        return timer.isRunning();
+    }
+
+    public long getTweensStarted() {
+        return tweensStarted;
+    }
+
+    private void step() {
+        long now = System.nanoTime();
+        Iterator<Tween> it = active.values().iterator();
+        while (it.hasNext()) {
+            Tween tween = it.next();
+            double t = Math.min(1.0, (double) (now - tween.startNanos) / tween.durationNanos);
+            double value = tween.from + (tween.to - tween.from) * tween.easing.apply(t);
+            if (t >= 1.0) {
+                value = tween.to; // land exactly, whatever the easing does
+                it.remove();
+            }
+            tween.setter.accept(value);
+        }
+        if (active.isEmpty()) {
+            timer.stop();
+        }
+    }
+}
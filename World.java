@@ -0,0 +1,260 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The endless overworld, made of {@link Chunk}s generated from a seed.
+ * Chunks around the player are generated ahead of time on a background thread and kept
+ * in a small fixed-size window; anything that falls out of range is dropped, since it can
+ * be generated again identically. Memory stays bounded by the window size no matter how
+ * far the avatar walks.
+ *
+ * Everything except the generation tasks runs on the simulation thread.
+ */
+public final class World implements AutoCloseable {
+
+    public static final int LOAD_RADIUS = 2; // chunks generated ahead around the player
+    public static final int EVICT_RADIUS = 3; // chunks further than this are dropped
+    private static final int LAYER_RADIUS = 1; // chunks that can be on screen keep their terrain image
+
+    // Direct-mapped window of loaded chunks. Its side must be larger than 2 * EVICT_RADIUS + 1
+    // so two chunks we want to keep can never fight over the same slot.
+    private static final int WINDOW_BITS = 3;
+    private static final int WINDOW_SIZE = 1 << WINDOW_BITS;
+    private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+
+    private final long seed;
+    private final Chunk[] window = new Chunk[WINDOW_SIZE * WINDOW_SIZE];
+    private final Map<Long, Future<Chunk>> pending = new HashMap<>();
+    private final ExecutorService generator;
+
+    private int centerChunkX = Integer.MIN_VALUE;
+    private int centerChunkY = Integer.MIN_VALUE;
+    // Written from the generator thread too
+    private final AtomicLong chunksGenerated = new AtomicLong();
+    private long chunksEvicted = 0;
+
+    public World(long seed) {
+        this.seed = seed;
+        this.generator = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "World Generator");
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Re-centres the loaded area on a world pixel position: queues generation for chunks
+     * coming into range and evicts the ones that left it. Cheap when the chunk hasn't changed.
+     */
+    public void update(int worldX, int worldY) {
+        int cx = Math.floorDiv(worldX, Chunk.SIZE);
+        int cy = Math.floorDiv(worldY, Chunk.SIZE);
+        installFinished();
+        if (cx == centerChunkX && cy == centerChunkY) {
+            return;
+        }
+        centerChunkX = cx;
+        centerChunkY = cy;
+
+        // Evict what's out of range before queueing new work
+        for (int i = 0; i < window.length; i++) {
+            Chunk chunk = window[i];
+            if (chunk == null) continue;
+            int distance = distance(chunk.getChunkX(), chunk.getChunkY());
+            if (distance > EVICT_RADIUS) {
+                evict(chunk);
+                window[i] = null;
+            } else if (distance > LAYER_RADIUS) {
+                chunk.releaseLayer();
+            }
+        }
+        Iterator<Map.Entry<Long, Future<Chunk>>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Future<Chunk>> entry = it.next();
+            long key = entry.getKey();
+            if (distance((int) (key >> 32), (int) key) > EVICT_RADIUS) {
+                entry.getValue().cancel(false);
+                it.remove();
+            }
+        }
+
+        for (int dy = -LOAD_RADIUS; dy <= LOAD_RADIUS; dy++) {
+            for (int dx = -LOAD_RADIUS; dx <= LOAD_RADIUS; dx++) {
+                int x = cx + dx;
+                int y = cy + dy;
+                long key = key(x, y);
+                if (peek(x, y) == null && !pending.containsKey(key)) {
+                    pending.put(key, generator.submit(() -> generate(x, y)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the chunk at the given chunk coordinates, waiting for it to be built if the
+     * background generator hasn't got to it yet.
+     */
+    public Chunk getChunk(int chunkX, int chunkY) {
+        Chunk chunk = peek(chunkX, chunkY);
+        if (chunk != null) {
+            return chunk;
+        }
+        Future<Chunk> future = pending.remove(key(chunkX, chunkY));
+        if (future != null && !future.isCancelled()) {
+            try {
+                chunk = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("Chunk generation failed: " + e.getCause());
+            }
+        }
+        if (chunk == null) {
+            chunk = generate(chunkX, chunkY);
+        }
+        install(chunk);
+        return chunk;
+    }
+
+    /** @return true if a box in world pixels overlaps any grass tile. */
+    public boolean collides(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) return false;
+        int firstX = Math.floorDiv(x, Chunk.TILE_SIZE);
+        int lastX = Math.floorDiv(x + width - 1, Chunk.TILE_SIZE);
+        int firstY = Math.floorDiv(y, Chunk.TILE_SIZE);
+        int lastY = Math.floorDiv(y + height - 1, Chunk.TILE_SIZE);
+        for (int ty = firstY; ty <= lastY; ty++) {
+            for (int tx = firstX; tx <= lastX; tx++) {
+                if (isTileBlocked(tx, ty)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public boolean isTileBlocked(int tileX, int tileY) {
+        Chunk chunk = getChunk(Math.floorDiv(tileX, Chunk.TILES), Math.floorDiv(tileY, Chunk.TILES));
+        return chunk.isTileBlocked(Math.floorMod(tileX, Chunk.TILES), Math.floorMod(tileY, Chunk.TILES));
+    }
+
+    public EncounterZone getZone(int tileX, int tileY) {
+        Chunk chunk = getChunk(Math.floorDiv(tileX, Chunk.TILES), Math.floorDiv(tileY, Chunk.TILES));
+        return chunk.getZone(Math.floorMod(tileX, Chunk.TILES), Math.floorMod(tileY, Chunk.TILES));
+    }
+
+    public int getLoadedChunkCount() {
+        int count = 0;
+        for (Chunk chunk : window) {
+            if (chunk != null) count++;
+        }
+        return count;
+    }
+
+    public long getChunksGenerated() {
+        return chunksGenerated.get();
+    }
+
+    public long getChunksEvicted() {
+        return chunksEvicted;
+    }
+
+    /**
+     * Stops the generator thread. Call it on the simulation thread once the simulation has
+     * stopped; chunks still queued are dropped, so a later getChunk builds them in place.
+     */
+    @Override
+    public void close() {
+        for (Future<Chunk> future : pending.values()) {
+            future.cancel(true);
+        }
+        pending.clear();
+        generator.shutdownNow();
+        try {
+            generator.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Chunk peek(int chunkX, int chunkY) {
+        Chunk chunk = window[slot(chunkX, chunkY)];
+        if (chunk != null && chunk.getChunkX() == chunkX && chunk.getChunkY() == chunkY) {
+            return chunk;
+        }
+        return null;
+    }
+
+    private void installFinished() {
+        if (pending.isEmpty()) return;
+        Iterator<Future<Chunk>> it = pending.values().iterator();
+        while (it.hasNext()) {
+            Future<Chunk> future = it.next();
+            if (!future.isDone()) continue;
+            it.remove();
+            try {
+                Chunk chunk = future.get();
+                if (distance(chunk.getChunkX(), chunk.getChunkY()) <= EVICT_RADIUS) {
+                    install(chunk);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Cancelled or failed; getChunk will build it synchronously if it's ever needed
+            }
+        }
+    }
+
+    private void install(Chunk chunk) {
+        int slot = slot(chunk.getChunkX(), chunk.getChunkY());
+        Chunk previous = window[slot];
+        if (previous != null && previous != chunk) {
+            evict(previous);
+        }
+        window[slot] = chunk;
+    }
+
+    private void evict(Chunk chunk) {
+        chunk.releaseLayer();
+        chunksEvicted++;
+    }
+
+    private Chunk generate(int chunkX, int chunkY) {
+        FlightEvents.ChunkGeneration event = new FlightEvents.ChunkGeneration();
+        event.begin();
+        Chunk chunk = Chunk.generate(seed, chunkX, chunkY);
+        chunksGenerated.incrementAndGet();
+        event.end();
+        if (event.shouldCommit()) {
+            event.chunkX = chunkX;
+            event.chunkY = chunkY;
+            event.roads = chunk.getRoadCount();
+            event.commit();
+        }
+        return chunk;
+    }
+
+    private int distance(int chunkX, int chunkY) {
+        return Math.max(Math.abs(chunkX - centerChunkX), Math.abs(chunkY - centerChunkY));
+    }
+
+    private static int slot(int chunkX, int chunkY) {
+        return ((chunkY & WINDOW_MASK) << WINDOW_BITS) | (chunkX & WINDOW_MASK);
+    }
+
+    private static long key(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+    }
+}
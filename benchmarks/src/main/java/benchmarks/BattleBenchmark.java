@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Battle turn resolution through BattleEngine: whole wild and boss battles, headless. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BattleBenchmark {
+
+    private static final MethodHandle NEW_MONSTER = GameHandles.constructor("Monster");
+    private static final MethodHandle WILD = GameHandles.staticMethod("BattleEngine", "wild",
+            GameHandles.type("BattleEngine"), List.class, GameHandles.type("Monster"), RandomGenerator.class);
+    private static final MethodHandle BOSS = GameHandles.staticMethod("BattleEngine", "boss",
+            GameHandles.type("BattleEngine"), List.class, RandomGenerator.class);
+    private static final MethodHandle PERFORM_TURN = GameHandles.method("BattleEngine", "performTurn",
+            GameHandles.type("BattleEngine$TurnResult"));
+    private static final MethodHandle IS_OVER = GameHandles.method("BattleEngine", "isOver", boolean.class);
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Benchmark
+    public int wildBattle() throws Throwable {
+        List<Object> party = new ArrayList<>(1);
+        Object starter = (Object) NEW_MONSTER.invokeExact();
+        party.add(starter);
+        Object engine = (Object) WILD.invokeExact((List) party, starter, (RandomGenerator) random);
+        return runToEnd(engine);
+    }
+
+    @Benchmark
+    public int bossBattle() throws Throwable {
+        List<Object> party = new ArrayList<>(3);
+        for (int i = 0; i < 3; i++) {
+            party.add((Object) NEW_MONSTER.invokeExact());
+        }
+        Object engine = (Object) BOSS.invokeExact((List) party, (RandomGenerator) random);
+        return runToEnd(engine);
+    }
+
+    private static int runToEnd(Object engine) throws Throwable {
+        int turns = 0;
+        while (!(boolean) IS_OVER.invokeExact(engine)) {
+            Object turn = (Object) PERFORM_TURN.invokeExact(engine);
+            turns++;
+        }
+        return turns;
+    }
+}
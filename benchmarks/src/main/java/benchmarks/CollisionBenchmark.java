@@ -0,0 +1,115 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per-tick avatar collision check. The bitmap case should cost the same from the
+ * old 25x19 screen up to millions of tiles; the world case the same near spawn and
+ * a million pixels away.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    private static final MethodHandle NEW_MAP = GameHandles.constructor("CollisionMap", int.class, int.class, int.class);
+    private static final MethodHandle SET_BLOCKED = GameHandles.method("CollisionMap", "setBlocked",
+            void.class, int.class, int.class, boolean.class);
+    private static final MethodHandle MAP_COLLIDES = GameHandles.method("CollisionMap", "collides",
+            boolean.class, int.class, int.class, int.class, int.class);
+    private static final MethodHandle NEW_WORLD = GameHandles.constructor("World", long.class, java.io.File.class);
+    private static final MethodHandle WORLD_UPDATE = GameHandles.method("World", "update", void.class, int.class, int.class);
+    private static final MethodHandle WORLD_COLLIDES = GameHandles.method("World", "collides",
+            boolean.class, int.class, int.class, int.class, int.class);
+    private static final MethodHandle WORLD_CLOSE = GameHandles.method("World", "close", void.class);
+
+    private static final int TILE_SIZE = 32;
+    private static final int POSITIONS = 1024; // power of two
+
+    /** A single CollisionMap with a quarter of its tiles blocked. */
+    @State(Scope.Thread)
+    public static class MapState {
+        @Param({ "25", "1024", "4096" })
+        public int tilesPerSide;
+
+        Object map;
+        final int[] x = new int[POSITIONS];
+        final int[] y = new int[POSITIONS];
+        int index;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Throwable {
+            SplittableRandom random = new SplittableRandom(1);
+            map = (Object) NEW_MAP.invokeExact(tilesPerSide, tilesPerSide, TILE_SIZE);
+            for (int ty = 0; ty < tilesPerSide; ty++) {
+                for (int tx = 0; tx < tilesPerSide; tx++) {
+                    SET_BLOCKED.invokeExact(map, tx, ty, random.nextInt(4) == 0);
+                }
+            }
+            int extent = tilesPerSide * TILE_SIZE - TILE_SIZE;
+            for (int i = 0; i < POSITIONS; i++) {
+                x[i] = random.nextInt(extent);
+                y[i] = random.nextInt(extent);
+            }
+        }
+    }
+
+    /** The chunked world, with the avatar near spawn or far out. */
+    @State(Scope.Thread)
+    public static class WorldState {
+        @Param({ "0", "1000000" })
+        public int worldOffset;
+
+        Object world;
+        final int[] x = new int[POSITIONS];
+        final int[] y = new int[POSITIONS];
+        int index;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Throwable {
+            SplittableRandom random = new SplittableRandom(1);
+            world = (Object) NEW_WORLD.invokeExact(42L, (java.io.File) null);
+            WORLD_UPDATE.invokeExact(world, worldOffset, worldOffset);
+            // Positions within the loaded area around the avatar, wherever it is
+            for (int i = 0; i < POSITIONS; i++) {
+                x[i] = worldOffset + random.nextInt(512) - 256;
+                y[i] = worldOffset + random.nextInt(512) - 256;
+                boolean faultIn = (boolean) WORLD_COLLIDES.invokeExact(world, x[i], y[i], 32, 32);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Throwable {
+            WORLD_CLOSE.invokeExact(world);
+        }
+    }
+
+    @Benchmark
+    public boolean collisionMap(MapState state) throws Throwable {
+        int i = state.index++ & (POSITIONS - 1);
+        return (boolean) MAP_COLLIDES.invokeExact(state.map, state.x[i], state.y[i], 32, 32);
+    }
+
+    @Benchmark
+    public boolean world(WorldState state) throws Throwable {
+        int i = state.index++ & (POSITIONS - 1);
+        return (boolean) WORLD_COLLIDES.invokeExact(state.world, state.x[i], state.y[i], 32, 32);
+    }
+}
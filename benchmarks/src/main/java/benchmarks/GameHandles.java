@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * The game's classes live in the default package, which Java code in a named package
+ * (and JMH insists on one) can't import. Benchmarks reach them through method handles
+ * instead; a static final handle called with invokeExact is inlined by the JIT like a
+ * direct call, so it doesn't skew the numbers.
+ *
+ * Game types in signatures are erased to Object.
+ */
+final class GameHandles {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private GameHandles() {
+    }
+
+    static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Game class " + name + " is not on the classpath", e);
+        }
+    }
+
+    static MethodHandle constructor(String owner, Class<?>... params) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(type(owner), MethodType.methodType(void.class, params));
+            return handle.asType(erase(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static MethodHandle method(String owner, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            MethodHandle handle = LOOKUP.findVirtual(type(owner), name, MethodType.methodType(returnType, params));
+            return handle.asType(erase(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static MethodHandle staticMethod(String owner, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            MethodHandle handle = LOOKUP.findStatic(type(owner), name, MethodType.methodType(returnType, params));
+            return handle.asType(erase(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodType erase(MethodType type) {
+        MethodType erased = type.changeReturnType(eraseClass(type.returnType()));
+        for (int i = 0; i < type.parameterCount(); i++) {
+            erased = erased.changeParameterType(i, eraseClass(type.parameterType(i)));
+        }
+        return erased;
+    }
+
+    private static Class<?> eraseClass(Class<?> c) {
+        return !c.isPrimitive() && !c.isArray() && c.getPackageName().isEmpty() ? Object.class : c;
+    }
+}
@@ -0,0 +1,33 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Map generation: one overworld chunk (what generateMap used to build for the whole screen). */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapGenerationBenchmark {
+
+    private static final MethodHandle GENERATE = GameHandles.staticMethod("Chunk", "generate",
+            GameHandles.type("Chunk"), long.class, int.class, int.class);
+
+    private int chunkX;
+
+    @Benchmark
+    public Object generateChunk() throws Throwable {
+        return (Object) GENERATE.invokeExact(42L, chunkX++, 7);
+    }
+}
@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * An offscreen frame of the overworld into an 800x600 image: the same work as
+ * Game.paintComponent (terrain of the visible chunks, avatar, HUD text), with the
+ * terrain either reused from the cached layers or rebuilt every frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    private static final MethodHandle NEW_WORLD = GameHandles.constructor("World", long.class, java.io.File.class);
+    private static final MethodHandle GET_CHUNK = GameHandles.method("World", "getChunk",
+            GameHandles.type("Chunk"), int.class, int.class);
+    private static final MethodHandle WORLD_CLOSE = GameHandles.method("World", "close", void.class);
+    private static final MethodHandle GET_LAYER = GameHandles.method("Chunk", "getLayer", GameHandles.type("CachedLayer"));
+    private static final MethodHandle DRAW = GameHandles.method("CachedLayer", "draw",
+            void.class, Graphics2D.class, int.class, int.class, int.class, int.class, double.class);
+    private static final MethodHandle INVALIDATE = GameHandles.method("CachedLayer", "invalidate", void.class);
+    private static final MethodHandle SHARED_SPRITES = GameHandles.staticMethod("SpriteCache", "shared",
+            GameHandles.type("SpriteCache"));
+    private static final MethodHandle GET_SPRITE = GameHandles.method("SpriteCache", "get",
+            BufferedImage.class, String.class, int.class, int.class);
+
+    private static final int CHUNK_SIZE = 512;
+
+    @Param({ "1.0", "2.0" })
+    public double scale;
+
+    private Object world;
+    private final Object[] layers = new Object[4];
+    private BufferedImage avatar;
+    private BufferedImage frame;
+    private Graphics2D g;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        world = (Object) NEW_WORLD.invokeExact(42L, (java.io.File) null);
+        // A camera straddling the corner of four chunks, the worst case for an 800x600 view
+        for (int i = 0; i < 4; i++) {
+            Object chunk = (Object) GET_CHUNK.invokeExact(world, i % 2, i / 2);
+            layers[i] = (Object) GET_LAYER.invokeExact(chunk);
+        }
+        Object sprites = (Object) SHARED_SPRITES.invokeExact();
+        avatar = (BufferedImage) GET_SPRITE.invokeExact(sprites, "/Game Items/avatar_front.png", 32, 32);
+        frame = new BufferedImage((int) (800 * scale), (int) (600 * scale), BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        g.dispose();
+        WORLD_CLOSE.invokeExact(world);
+    }
+
+    @Benchmark
+    public BufferedImage cachedTerrain() throws Throwable {
+        drawFrame(false);
+        return frame;
+    }
+
+    @Benchmark
+    public BufferedImage rebuiltTerrain() throws Throwable {
+        drawFrame(true);
+        return frame;
+    }
+
+    private void drawFrame(boolean rebuild) throws Throwable {
+        int chunkPixels = (int) Math.ceil(CHUNK_SIZE * scale);
+        int originX = (int) (-112 * scale);
+        int originY = (int) (-212 * scale);
+        for (int i = 0; i < 4; i++) {
+            if (rebuild) {
+                INVALIDATE.invokeExact(layers[i]);
+            }
+            DRAW.invokeExact(layers[i], g, originX + (i % 2) * chunkPixels, originY + (i / 2) * chunkPixels,
+                    chunkPixels, chunkPixels, scale);
+        }
+        java.awt.geom.AffineTransform old = g.getTransform();
+        g.scale(scale, scale);
+        if (avatar != null) {
+            g.drawImage(avatar, 384, 284, 32, 32, null);
+        }
+        g.setColor(java.awt.Color.WHITE);
+        g.drawString("Pixels since last battle: 123", 10, 20);
+        g.drawString("Coins: 45", 10, 40);
+        g.drawString("Battles: 3/10", 10, 60);
+        g.setTransform(old);
+    }
+}
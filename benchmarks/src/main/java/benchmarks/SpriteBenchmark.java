@@ -0,0 +1,54 @@
+package benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sprite loading: a cold load (decode the PNG and scale it, what the inventory used to do
+ * for every row) against a hit in the shared cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpriteBenchmark {
+
+    private static final MethodHandle NEW_CACHE = GameHandles.constructor("SpriteCache", long.class);
+    private static final MethodHandle GET_MONSTER = GameHandles.method("SpriteCache", "getMonster",
+            BufferedImage.class, String.class, int.class);
+
+    private Object warmCache;
+
+    @Setup
+    public void setUp() throws Throwable {
+        warmCache = (Object) NEW_CACHE.invokeExact(32L * 1024 * 1024);
+        BufferedImage loaded = (BufferedImage) GET_MONSTER.invokeExact(warmCache, "Snorb", 50);
+        if (loaded == null) {
+            throw new IllegalStateException("Game Items/snorb.png is not on the classpath");
+        }
+    }
+
+    @Benchmark
+    public BufferedImage coldLoad() throws Throwable {
+        Object cache = (Object) NEW_CACHE.invokeExact(32L * 1024 * 1024);
+        return (BufferedImage) GET_MONSTER.invokeExact(cache, "Snorb", 50);
+    }
+
+    @Benchmark
+    public BufferedImage cacheHit() throws Throwable {
+        return (BufferedImage) GET_MONSTER.invokeExact(warmCache, "Snorb", 50);
+    }
+}
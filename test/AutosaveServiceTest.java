@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AutosaveServiceTest {
+
+    @TempDir
+    File directory;
+
+    private final AtomicInteger coins = new AtomicInteger();
+    private final AtomicInteger captures = new AtomicInteger();
+    private final AtomicReference<AutosaveService> service = new AtomicReference<>();
+
+    private SaveGame state() {
+        MonsterRoster monsters = new MonsterRoster();
+        monsters.add(new Monster());
+        return new SaveGame(1, 0, 0, coins.get(), 0, monsters);
+    }
+
+    private SaveStore freshStore() throws Exception {
+        SaveStore store = new SaveStore(directory);
+        store.load();
+        store.writeSnapshot(state());
+        return store;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for the autosave thread");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void eventSubmittedBetweenCaptureAndWriteSurvivesTheSnapshot() throws Exception {
+        // The first capture takes the state, then the game changes and journals it before the write
+        service.set(new AutosaveService(freshStore(), () -> {
+            SaveGame captured = state();
+            if (captures.getAndIncrement() == 0) {
+                coins.set(7);
+                service.get().record(s -> s.appendCoins(7));
+            }
+            return captured;
+        }, Runnable::run));
+        service.get().requestSnapshot();
+        await(() -> service.get().getWrites() >= 1);
+
+        SaveGame reloaded = new SaveStore(directory).load();
+        assertNotNull(reloaded);
+        assertEquals(7, reloaded.coins);
+        service.get().close();
+    }
+
+    @Test
+    void snapshotRequestedDuringCaptureIsNotDropped() throws Exception {
+        service.set(new AutosaveService(freshStore(), () -> {
+            if (captures.getAndIncrement() == 0) {
+                service.get().requestSnapshot();
+            }
+            return state();
+        }, Runnable::run));
+        service.get().requestSnapshot();
+        await(() -> service.get().getSnapshots() >= 2);
+        service.get().close();
+    }
+}
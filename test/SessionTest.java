@@ -0,0 +1,44 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SessionTest {
+
+    @TempDir
+    File directory;
+
+    private File recordRun() throws Exception {
+        HeadlessGame game = new HeadlessGame(1, 2, HeadlessGame.wander(2), BossAI.Difficulty.CLASSIC);
+        Session session = game.record();
+        game.run(60_000);
+        game.endRecording();
+        game.close();
+        File file = new File(directory, "session.txt");
+        session.save(file);
+        return file;
+    }
+
+    @Test
+    void replayEndsWithTheSameOverworldCoinsAndRoster() throws Exception {
+        Session loaded = Session.load(recordRun());
+        assertTrue(loaded.battles.size() > 0, "the run should have fought");
+        assertEquals(loaded.getEndState(), loaded.replayHeadless());
+    }
+
+    @Test
+    void replayNoticesAMissingBattleAction() throws Exception {
+        File file = recordRun();
+        List<String> lines = Files.readAllLines(file.toPath());
+        lines.remove(lines.stream().filter(line -> line.endsWith(" CATCH")).findFirst().orElseThrow());
+        Files.write(file.toPath(), lines);
+
+        Session tampered = Session.load(file);
+        assertNotEquals(tampered.getEndState(), tampered.replayHeadless());
+    }
+}